@@ -6,6 +6,10 @@ CREATE DATABASE IF NOT EXISTS test
 USE rpg;
 
 DROP TABLE IF EXISTS player;
+-- the application's Flyway migrations (src/main/resources/db/migration) bring this V1 table up to date on startup
+DROP TABLE IF EXISTS id_generator;
+DROP TABLE IF EXISTS player_version;
+DROP TABLE IF EXISTS flyway_schema_history;
 
 CREATE TABLE player
 (
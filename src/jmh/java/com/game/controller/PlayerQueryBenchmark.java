@@ -0,0 +1,155 @@
+package com.game.controller;
+
+import com.game.config.AppConfig;
+import com.game.entity.Player;
+import com.game.entity.PlayerOrder;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import com.game.index.ColumnFilter;
+import com.game.index.PlayerColumnStore;
+import com.game.index.PlayerCountAggregates;
+import com.game.index.PlayerIndexes;
+import com.game.index.PlayerJsonCache;
+import com.game.service.PlayerImporter;
+import com.game.service.PlayerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The readAll and count paths of PlayerController against the embedded H2 database of the dev profile:
+ * building the filter, turning it into a criteria predicate, and running it through the service, compared
+ * with answering the same filter from {@link PlayerColumnStore} and {@link PlayerCountAggregates}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlayerQueryBenchmark {
+
+    // players added on top of the 40 rows of test.sql
+    @Param({"10000"})
+    private int extraPlayers;
+
+    private AnnotationConfigApplicationContext context;
+    private PlayerController playerController;
+    private PlayerService playerService;
+    private PlayerColumnStore playerColumnStore;
+    private PlayerCountAggregates playerCountAggregates;
+    private EntityManager entityManager;
+
+    @Setup
+    public void setup() {
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles("dev");
+        context.getEnvironment().getPropertySources().addFirst(
+                new MapPropertySource("benchmark", Collections.singletonMap("replica.enabled", "true")));
+        context.register(AppConfig.class);
+        context.refresh();
+
+        playerService = context.getBean(PlayerService.class);
+        playerColumnStore = context.getBean(PlayerColumnStore.class);
+        playerCountAggregates = context.getBean(PlayerCountAggregates.class);
+        playerController = new PlayerController(playerService, context.getBean(PlayerImporter.class),
+                context.getBean(PlayerJsonCache.class), playerColumnStore,
+                playerCountAggregates, context.getBean(PlayerIndexes.class), null, null, Runnable::run);
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+
+        Random random = new Random(42);
+        List<Player> players = new ArrayList<>(extraPlayers);
+        for (int i = 0; i < extraPlayers; i++) {
+            Player player = new Player();
+            player.setName("Игрок" + i);
+            player.setTitle("Титул " + random.nextInt(100));
+            player.setRace(Race.values()[random.nextInt(Race.values().length)]);
+            player.setProfession(Profession.values()[random.nextInt(Profession.values().length)]);
+            player.setBirthday(new Date(946684800000L + (long) random.nextInt(1_000_000) * 1_000_000L));
+            player.setBanned(random.nextBoolean());
+            player.setExperience(random.nextInt(10_000_001));
+            players.add(player);
+        }
+        playerService.createAll(players);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    private Specification<Player> filter() {
+        return playerController.filter(null, null, Race.HUMAN, Profession.WARRIOR, null, null, false,
+                null, null, 10, 300);
+    }
+
+    @Benchmark
+    public Specification<Player> composeSpecification() {
+        return filter();
+    }
+
+    @Benchmark
+    public Predicate buildPredicate() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Player> query = cb.createQuery(Player.class);
+        Root<Player> root = query.from(Player.class);
+        return filter().toPredicate(root, query, cb);
+    }
+
+    @Benchmark
+    public List<Player> readAll() {
+        return playerService.readAll(filter(), PageRequest.of(2, 20, Sort.by("id"))).getContent();
+    }
+
+    @Benchmark
+    public long count() {
+        return playerService.count(filter());
+    }
+
+    private ColumnFilter columnFilter() {
+        return new ColumnFilter(Race.HUMAN, Profession.WARRIOR, null, null, false, null, null, 10, 300);
+    }
+
+    @Benchmark
+    public List<Player> readAllFromColumns() {
+        return playerColumnStore.find(columnFilter(), PlayerOrder.ID, 40, 20);
+    }
+
+    @Benchmark
+    public long countFromColumns() {
+        return playerColumnStore.count(columnFilter());
+    }
+
+    @Benchmark
+    public long countFromAggregates() {
+        return playerCountAggregates.count(columnFilter());
+    }
+}
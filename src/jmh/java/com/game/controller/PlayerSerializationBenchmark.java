@@ -0,0 +1,82 @@
+package com.game.controller;
+
+import com.game.config.AppConfig;
+import com.game.config.WebConfig;
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a page of players through the JSON converter that WebConfig registers for the REST API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlayerSerializationBenchmark {
+
+    private static final Type PLAYER_LIST = ResolvableType.forClassWithGenerics(List.class, Player.class).getType();
+
+    @Param({"3", "100", "1000"})
+    private int pageSize;
+
+    private MappingJackson2HttpMessageConverter converter;
+    private List<Player> players;
+
+    @Setup
+    public void setup() {
+        WebConfig webConfig = new WebConfig();
+        webConfig.setObjectMapper(new AppConfig().objectMapper());
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        webConfig.configureMessageConverters(converters);
+        converter = (MappingJackson2HttpMessageConverter) converters.get(0);
+
+        players = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Player player = new Player();
+            player.setId((long) i + 1);
+            player.setName("Амарылис");
+            player.setTitle("Прозелит");
+            player.setRace(Race.HUMAN);
+            player.setProfession(Profession.CLERIC);
+            player.setBirthday(new Date(988059600000L));
+            player.setBanned(false);
+            player.setExperience(63986);
+            player.setLevel(35);
+            player.setUntilNextLevel(2614);
+            players.add(player);
+        }
+    }
+
+    @Benchmark
+    public byte[] writePlayers() throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(players, PLAYER_LIST, MediaType.APPLICATION_JSON, message);
+        return message.getBodyAsBytes();
+    }
+}
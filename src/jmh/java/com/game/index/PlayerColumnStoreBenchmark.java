@@ -0,0 +1,98 @@
+package com.game.index;
+
+import com.game.entity.Player;
+import com.game.entity.PlayerOrder;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import com.game.service.LevelCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filters of {@code GET /rest/players} and {@code /count} answered by {@link PlayerColumnStore} over millions of
+ * synthetic players, without a database. PlayerQueryBenchmark runs the same kind of filter through the
+ * Specification path ({@code -p extraPlayers=...} for a larger table).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class PlayerColumnStoreBenchmark {
+
+    @Param({"2000000"})
+    private int players;
+
+    private final ColumnFilter enumFilter = new ColumnFilter(Race.HUMAN, Profession.WARRIOR, null, null, false,
+            null, null, null, null);
+    private final ColumnFilter mixedFilter = new ColumnFilter(Race.HUMAN, Profession.WARRIOR, null, null, false,
+            null, null, 10, 300);
+
+    private PlayerColumnStore store;
+    private Player middle;
+
+    @Setup
+    public void setup() {
+        LevelCalculator levelCalculator = new LevelCalculator();
+        Random random = new Random(42);
+        List<Player> rows = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            Player player = new Player();
+            player.setId((long) i + 1);
+            player.setName("Игрок");
+            player.setTitle("Титул");
+            player.setRace(Race.values()[random.nextInt(Race.values().length)]);
+            player.setProfession(Profession.values()[random.nextInt(Profession.values().length)]);
+            player.setBirthday(new Date(946684800000L + (long) random.nextInt(1_000_000) * 1_000_000L));
+            player.setBanned(random.nextBoolean());
+            player.setExperience(random.nextInt(LevelCalculator.MAX_EXPERIENCE + 1));
+            player.setLevel(levelCalculator.level(player.getExperience()));
+            player.setUntilNextLevel(levelCalculator.untilNextLevel(player.getLevel(), player.getExperience()));
+            rows.add(player);
+        }
+
+        store = new PlayerColumnStore(true);
+        store.rebuild(rows);
+        middle = rows.get(players / 2);
+    }
+
+    @Benchmark
+    public long countByEnums() {
+        return store.count(enumFilter);
+    }
+
+    @Benchmark
+    public long countByEnumsAndLevel() {
+        return store.count(mixedFilter);
+    }
+
+    @Benchmark
+    public List<Player> readAllByEnums() {
+        return store.find(enumFilter, PlayerOrder.ID, 40, 20);
+    }
+
+    /**
+     * Write cost: deleting a row in the middle shifts every column behind it.
+     */
+    @Benchmark
+    public void deleteAndReinsert() {
+        store.onDelete(middle.getId());
+        store.onSave(middle);
+    }
+}
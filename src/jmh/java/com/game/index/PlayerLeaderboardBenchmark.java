@@ -0,0 +1,72 @@
+package com.game.index;
+
+import com.game.entity.Player;
+import com.game.service.LevelCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rank lookups and experience changes in {@link PlayerLeaderboard}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class PlayerLeaderboardBenchmark {
+
+    @Param({"1000000"})
+    private int players;
+
+    private final Random random = new Random(42);
+    private PlayerLeaderboard leaderboard;
+    private Player player;
+
+    @Setup
+    public void setup() {
+        List<Player> rows = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            Player row = new Player();
+            row.setId((long) i + 1);
+            row.setName("Игрок");
+            row.setExperience(random.nextInt(LevelCalculator.MAX_EXPERIENCE + 1));
+            row.setLevel(0);
+            rows.add(row);
+        }
+
+        leaderboard = new PlayerLeaderboard();
+        leaderboard.rebuild(rows);
+        player = rows.get(players / 2);
+    }
+
+    @Benchmark
+    public LeaderboardEntry rank() {
+        return leaderboard.rank(1L + random.nextInt(players));
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> around() {
+        return leaderboard.around(1L + random.nextInt(players), 10);
+    }
+
+    @Benchmark
+    public void changeExperience() {
+        player.setExperience(random.nextInt(LevelCalculator.MAX_EXPERIENCE + 1));
+        leaderboard.onSave(player);
+    }
+}
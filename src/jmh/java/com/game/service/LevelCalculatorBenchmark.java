@@ -0,0 +1,59 @@
+package com.game.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Level lookup through {@link LevelCalculator} against the boxed sqrt formula it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LevelCalculatorBenchmark {
+
+    private final LevelCalculator levelCalculator = new LevelCalculator();
+    private int[] experience;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        experience = new int[1024];
+        for (int i = 0; i < experience.length; i++)
+            experience[i] = random.nextInt(LevelCalculator.MAX_EXPERIENCE + 1);
+    }
+
+    @Benchmark
+    public long sqrtFormula() {
+        long sum = 0;
+        for (Integer exp : experience) {
+            Integer level = (int) ((Math.sqrt(2500 + 200 * exp) - 50) / 100);
+            Integer untilNextLevel = 50 * (level + 1) * (level + 2) - exp;
+            sum += level + untilNextLevel;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long levelCalculator() {
+        long sum = 0;
+        for (int exp : experience) {
+            int level = levelCalculator.level(exp);
+            sum += level + levelCalculator.untilNextLevel(level, exp);
+        }
+        return sum;
+    }
+}
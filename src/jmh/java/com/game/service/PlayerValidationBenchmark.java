@@ -0,0 +1,83 @@
+package com.game.service;
+
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of a new or updated player and of a path id, which runs on every request before any
+ * database work. Run with the GC profiler to see the allocations per request:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="PlayerValidation -prof gc"
+ * </pre>
+ * {@code gc.alloc.rate.norm} should be about 0 B/op for everything but {@link #calendarYear()},
+ * the Calendar-based birthday check validation used to do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlayerValidationBenchmark {
+
+    private PlayerServiceImpl playerService;
+    private Player player;
+    private String id;
+    private String invalidId;
+
+    @Setup
+    public void setup() {
+        // validation touches neither the repository nor the indexes
+        playerService = new PlayerServiceImpl(null, null, null, new LevelCalculator());
+
+        player = new Player();
+        player.setName("Амарылис");
+        player.setTitle("Прозелит");
+        player.setRace(Race.HUMAN);
+        player.setProfession(Profession.CLERIC);
+        player.setBirthday(new Date(988059600000L));
+        player.setBanned(false);
+        player.setExperience(63986);
+
+        id = "1234567";
+        invalidId = "12x4567";
+    }
+
+    @Benchmark
+    public Player checkPlayerParameters() {
+        playerService.checkPlayerParameters(player);
+        return player;
+    }
+
+    @Benchmark
+    public long parseId() {
+        return PlayerServiceImpl.parseId(id);
+    }
+
+    @Benchmark
+    public long parseInvalidId() {
+        return PlayerServiceImpl.parseId(invalidId);
+    }
+
+    @Benchmark
+    public boolean calendarYear() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(player.getBirthday());
+        return calendar.get(Calendar.YEAR) < 2000 || calendar.get(Calendar.YEAR) > 3000;
+    }
+}
@@ -0,0 +1,44 @@
+package com.game.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one endpoint. Every sample is kept and sorted once for the report, which is exact
+ * and cheap enough for the few million requests of a local run.
+ */
+class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+
+    synchronized void record(long latencyNanos, boolean error) {
+        if (count == latencies.length)
+            latencies = Arrays.copyOf(latencies, count * 2);
+
+        latencies[count++] = latencyNanos;
+        if (error)
+            errors++;
+    }
+
+    synchronized int getCount() {
+        return count;
+    }
+
+    synchronized int getErrors() {
+        return errors;
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.999 for p999
+     */
+    synchronized long percentile(double quantile) {
+        if (count == 0)
+            return 0;
+
+        Arrays.sort(latencies, 0, count);
+        int index = (int) Math.ceil(quantile * count) - 1;
+
+        return latencies[Math.max(0, Math.min(index, count - 1))];
+    }
+}
@@ -0,0 +1,217 @@
+package com.game.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.config.MyWebAppInit;
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.springframework.web.SpringServletContainerInitializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays a request log against the application and reports latency and throughput per endpoint.
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--concurrency=16 --rate=2000 --requests=100000"
+ * </pre>
+ * Options (all optional):
+ * <ul>
+ *     <li>{@code --log=<file>} request log, one JSON request per line (see {@link RecordedRequest});
+ *     the bundled player-requests.jsonl by default</li>
+ *     <li>{@code --url=<base url>} run against a deployed server instead of the embedded one</li>
+ *     <li>{@code --concurrency=8} parallel connections</li>
+ *     <li>{@code --rate=0} requests per second over all connections, 0 for as fast as possible</li>
+ *     <li>{@code --requests=10000} measured requests; the log is replayed round robin</li>
+ *     <li>{@code --warmup=1000} requests sent first and left out of the report</li>
+ * </ul>
+ * Without {@code --url} the application starts in an embedded Tomcat with the dev profile (H2).
+ * With a rate, latency is measured from the moment a request was due rather than when it was sent,
+ * so a stalled server is not hidden by the client waiting for it.
+ */
+public class PlayerLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        long requests = Long.parseLong(options.getOrDefault("requests", "10000"));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "1000"));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<RecordedRequest> log = RecordedRequest.readLog(logPath(options.get("log")), objectMapper);
+
+        Tomcat tomcat = null;
+        String baseUrl = options.get("url");
+        if (baseUrl == null) {
+            tomcat = startServer();
+            baseUrl = "http://localhost:" + tomcat.getConnector().getLocalPort();
+        }
+
+        try {
+            Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+            long elapsed = replay(baseUrl, log, concurrency, rate, warmup, requests, recorders);
+            report(recorders, elapsed, concurrency, rate);
+        } finally {
+            if (tomcat != null) {
+                tomcat.stop();
+                tomcat.destroy();
+            }
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("="))
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        return options;
+    }
+
+    private static Path logPath(String log) throws Exception {
+        if (log != null)
+            return Paths.get(log);
+
+        URL bundled = PlayerLoadGenerator.class.getResource("/player-requests.jsonl");
+        return Paths.get(bundled.toURI());
+    }
+
+    /**
+     * Boots the war the same way a container does, through MyWebAppInit, but with the dev profile.
+     */
+    private static Tomcat startServer() throws Exception {
+        Path baseDir = Files.createTempDirectory("player-loadtest");
+
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.setPort(0);
+
+        Context context = tomcat.addContext("", baseDir.toString());
+        // MyWebAppInit only sets the prod profile when none is configured yet
+        context.addParameter("spring.profiles.active", "dev");
+        context.addServletContainerInitializer(new SpringServletContainerInitializer(),
+                Collections.singleton(MyWebAppInit.class));
+
+        tomcat.getConnector();
+        tomcat.start();
+
+        return tomcat;
+    }
+
+    private static long replay(String baseUrl, List<RecordedRequest> log, int concurrency, double rate,
+                               long warmup, long requests, Map<String, LatencyRecorder> recorders) throws InterruptedException {
+        AtomicLong tickets = new AtomicLong();
+        long total = warmup + requests;
+        long start = System.nanoTime();
+        long nanosPerRequest = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+        AtomicLong measuredStart = new AtomicLong();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                long ticket;
+                while ((ticket = tickets.getAndIncrement()) < total) {
+                    long due = start + ticket * nanosPerRequest;
+                    long now = System.nanoTime();
+                    if (nanosPerRequest > 0 && due > now)
+                        sleepNanos(due - now);
+                    long sent = nanosPerRequest > 0 ? due : System.nanoTime();
+                    if (ticket == warmup)
+                        measuredStart.set(sent);
+
+                    RecordedRequest request = log.get((int) (ticket % log.size()));
+                    boolean error = !send(baseUrl, request);
+                    long latency = System.nanoTime() - sent;
+
+                    if (ticket >= warmup)
+                        recorders.computeIfAbsent(request.getEndpoint(), endpoint -> new LatencyRecorder())
+                                .record(latency, error);
+                }
+            });
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+        return System.nanoTime() - measuredStart.get();
+    }
+
+    /**
+     * @return false for connection failures and 5xx answers; 4xx is a valid answer to a recorded bad request
+     */
+    private static boolean send(String baseUrl, RecordedRequest request) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + request.getPath()).openConnection();
+            connection.setRequestMethod(request.getMethod());
+            if (request.getBody() != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(request.getBody().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            int status = connection.getResponseCode();
+            // reading the body to the end lets the connection be reused
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (in != null)
+                    while (in.read(new byte[8192]) >= 0) ;
+            }
+
+            return status < 500;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void sleepNanos(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void report(Map<String, LatencyRecorder> recorders, long elapsedNanos, int concurrency, double rate) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%nconcurrency %d, rate %s, %.1f s%n%n", concurrency, rate > 0 ? rate + "/s" : "unlimited", seconds);
+        System.out.printf("%-32s %9s %7s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, LatencyRecorder> entry : new TreeMap<>(recorders).entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            requests += recorder.getCount();
+            errors += recorder.getErrors();
+            System.out.printf("%-32s %9d %7d %10.1f %10.3f %10.3f %10.3f %10.3f%n",
+                    entry.getKey(), recorder.getCount(), recorder.getErrors(), recorder.getCount() / seconds,
+                    recorder.percentile(0.5) / 1e6, recorder.percentile(0.99) / 1e6,
+                    recorder.percentile(0.999) / 1e6, recorder.percentile(1) / 1e6);
+        }
+
+        System.out.printf("%-32s %9d %7d %10.1f%n", "total", requests, errors, requests / seconds);
+        System.out.flush();
+    }
+}
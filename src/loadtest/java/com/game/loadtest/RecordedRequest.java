@@ -0,0 +1,77 @@
+package com.game.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * One line of a request log: {@code {"method": "GET", "path": "/rest/players?pageSize=10", "body": {...}}}.
+ * {@code method} defaults to GET and {@code body} is optional.
+ */
+class RecordedRequest {
+
+    private static final Pattern NUMBER_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final String method;
+    private final String path;
+    private final String body;
+    private final String endpoint;
+
+    private RecordedRequest(String method, String path, String body) {
+        this.method = method;
+        this.path = path;
+        this.body = body;
+
+        // statistics are grouped per route, so /rest/players/17 and /rest/players/18 count together
+        int query = path.indexOf('?');
+        String route = query < 0 ? path : path.substring(0, query);
+        this.endpoint = method + " " + NUMBER_SEGMENT.matcher(route).replaceAll("/{id}");
+    }
+
+    static List<RecordedRequest> readLog(Path log, ObjectMapper objectMapper) throws IOException {
+        List<RecordedRequest> requests = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty())
+                    continue;
+
+                JsonNode node = objectMapper.readTree(line);
+                JsonNode body = node.get("body");
+                requests.add(new RecordedRequest(
+                        node.path("method").asText("GET").toUpperCase(),
+                        node.get("path").asText(),
+                        body == null || body.isNull() ? null : objectMapper.writeValueAsString(body)));
+            }
+        }
+
+        if (requests.isEmpty())
+            throw new IllegalArgumentException("No requests in " + log);
+
+        return requests;
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    String getBody() {
+        return body;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,42 @@
+-- Query plans for the player filters produced by PlayerController.readAll / getCount.
+--
+-- Run against the rpg database before and after migration V2 (player filter indexes):
+--     mysql -uroot -p rpg < src/loadtest/resources/query_plans.sql > plans-before.txt
+-- (plans-after.txt once V2 is applied) and compare type, key, rows and Extra of each statement.
+-- No plans are recorded here: they depend on the MySQL version and the table statistics,
+-- so capture them on the database being tuned.
+--
+-- With only the 40 seed rows the optimizer may ignore the indexes altogether,
+-- so first fill the table with synthetic players (MySQL 8 recursive CTE, ~1M rows):
+--
+-- SET SESSION cte_max_recursion_depth = 1000000;
+-- INSERT INTO player(name, title, race, profession, birthday, banned, experience, level, untilNextLevel)
+-- WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 1000000)
+-- SELECT CONCAT('p', n),
+--        CONCAT('title ', n % 997),
+--        ELT(1 + n % 7, 'HUMAN', 'DWARF', 'ELF', 'GIANT', 'ORC', 'TROLL', 'HOBBIT'),
+--        ELT(1 + n % 8, 'WARRIOR', 'ROGUE', 'SORCERER', 'CLERIC', 'PALADIN', 'NAZGUL', 'WARLOCK', 'DRUID'),
+--        DATE_ADD('2000-01-01', INTERVAL n % 4000 DAY),
+--        n % 10 = 0,
+--        n * 7919 % 10000001,
+--        FLOOR((SQRT(2500 + 200 * (n * 7919 % 10000001)) - 50) / 100),
+--        0
+-- FROM seq;
+-- ANALYZE TABLE player;
+
+-- GET /rest/players?race=DWARF&profession=CLERIC&banned=true
+EXPLAIN SELECT * FROM player WHERE race = 'DWARF' AND profession = 'CLERIC' AND banned = 1 ORDER BY id LIMIT 0, 4;
+-- GET /rest/players/count?race=DWARF&profession=CLERIC&banned=true
+EXPLAIN SELECT COUNT(*) FROM player WHERE race = 'DWARF' AND profession = 'CLERIC' AND banned = 1;
+-- GET /rest/players?profession=WARRIOR&banned=false
+EXPLAIN SELECT * FROM player WHERE profession = 'WARRIOR' AND banned = 0 ORDER BY id LIMIT 0, 4;
+-- GET /rest/players?minExperience=94000&maxExperience=120000&order=EXPERIENCE
+EXPLAIN SELECT * FROM player WHERE experience BETWEEN 94000 AND 120000 ORDER BY experience, id LIMIT 0, 4;
+-- GET /rest/players?minLevel=42&order=LEVEL
+EXPLAIN SELECT * FROM player WHERE level >= 42 ORDER BY level, id LIMIT 0, 4;
+-- GET /rest/players?after=1104530400000&before=1230760800000&order=BIRTHDAY
+EXPLAIN SELECT * FROM player WHERE birthday BETWEEN '2005-01-01' AND '2009-01-01' ORDER BY birthday, id LIMIT 0, 4;
+-- GET /rest/players?order=NAME&pageSize=20
+EXPLAIN SELECT * FROM player ORDER BY name, id LIMIT 0, 20;
+-- GET /rest/players?order=EXPERIENCE&cursor=58347,1 (keyset page)
+EXPLAIN SELECT * FROM player WHERE experience > 58347 OR (experience = 58347 AND id > 1) ORDER BY experience, id LIMIT 4;
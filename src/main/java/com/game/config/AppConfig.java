@@ -1,86 +1,93 @@
 package com.game.config;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.game.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Profile;
-import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
-import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
-import org.springframework.orm.jpa.JpaTransactionManager;
-import org.springframework.orm.jpa.JpaVendorAdapter;
-import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
-import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
-import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.annotation.EnableTransactionManagement;
-
-import javax.persistence.EntityManagerFactory;
-import javax.sql.DataSource;
-import java.util.Properties;
-
-import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
 @Configuration
-@EnableTransactionManagement
-@ComponentScan("com.game")
-@EnableJpaRepositories(basePackages = "com.game.repository")
+@Import(DataConfig.class)
+// PlayerIndexes.refreshIfStale
+@EnableScheduling
+// web beans belong to the dispatcher context (WebConfig), so the root context can also start outside a servlet container
+@ComponentScan(basePackages = "com.game", excludeFilters = {
+        @ComponentScan.Filter(Controller.class),
+        @ComponentScan.Filter(EnableWebMvc.class)})
+@PropertySource("classpath:db.properties")
 public class AppConfig {
 
-    @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
-        LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
-        em.setDataSource(dataSource());
-        em.setPackagesToScan("com.game.entity");
-
-        JpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
-        em.setJpaVendorAdapter(vendorAdapter);
-        em.setJpaProperties(additionalProperties());
-
-        return em;
-    }
+    private Environment environment;
+    private MetricsRegistry metricsRegistry;
 
-    @Profile("prod")
-    @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/rpg?serverTimezone=UTC&characterEncoding=UTF-8");
-        dataSource.setUsername("root");
-        dataSource.setPassword("root");
-        return dataSource;
+    @Autowired
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
     }
 
-    @Profile("dev")
-    @Bean(name = "dataSource")
-    public DataSource dataSourceForTests() {
-
-        return new EmbeddedDatabaseBuilder()
-                .generateUniqueName(true)
-                .setType(H2)
-                .setScriptEncoding("UTF-8")
-                .ignoreFailedDrops(true)
-                .addScript("test.sql")
-                .build();
+    @Autowired
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
     }
 
+    /**
+     * Runs the database work of REST requests off the container threads. The queue is bounded and a full
+     * executor rejects new work, which the controller turns into 503 instead of letting requests pile up.
+     */
     @Bean
-    public PlatformTransactionManager transactionManager(EntityManagerFactory emf) {
-        JpaTransactionManager transactionManager = new JpaTransactionManager();
-        transactionManager.setEntityManagerFactory(emf);
+    public ThreadPoolTaskExecutor playerExecutor() {
+        int poolSize = environment.getRequiredProperty("db.executor.poolSize", Integer.class);
+        // a create holds one connection and takes a second from the pool for the next block of ids; with every
+        // connection held by a worker waiting for another one, all of them would time out
+        if (poolSize >= environment.getRequiredProperty("db.pool.maximumPoolSize", Integer.class))
+            throw new IllegalStateException("db.executor.poolSize must be smaller than db.pool.maximumPoolSize");
 
-        return transactionManager;
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("player-db-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(environment.getRequiredProperty("db.executor.queueCapacity", Integer.class));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setTaskDecorator(metricsRegistry.propagateStatementCounter());
+        return executor;
     }
 
+    /**
+     * Shared by the REST message converter, the export writers and the importer.
+     */
     @Bean
-    public PersistenceExceptionTranslationPostProcessor exceptionTranslation() {
-        return new PersistenceExceptionTranslationPostProcessor();
+    @Primary
+    public ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return objectMapper;
     }
 
-    private Properties additionalProperties() {
-        Properties properties = new Properties();
-        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
-
-        return properties;
+    /**
+     * Binary Smile for clients that ask for application/x-jackson-smile. Field names are written once
+     * per response and referenced afterwards, and race and profession are written as their ordinals.
+     */
+    @Bean
+    public ObjectMapper smileObjectMapper() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.smile()
+                .featuresToEnable(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                .build();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return objectMapper;
     }
-}
\ No newline at end of file
+}
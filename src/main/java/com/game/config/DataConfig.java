@@ -0,0 +1,186 @@
+package com.game.config;
+
+import com.game.metrics.MetricsJpaDialect;
+import com.game.metrics.MetricsRegistry;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * The data source, JPA and transactions, without the in-memory indexes and the web layer built on them.
+ * Part of {@link AppConfig}, and all that {@code PlayerImportTool} starts besides the import service.
+ */
+@Configuration
+@EnableTransactionManagement
+@EnableJpaRepositories(basePackages = "com.game.repository")
+@PropertySource("classpath:db.properties")
+public class DataConfig {
+
+    private Environment environment;
+    private MetricsRegistry metricsRegistry;
+
+    @Autowired
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Autowired
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
+        LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
+        em.setDataSource(dataSource());
+        em.setPackagesToScan("com.game.entity");
+
+        JpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
+        em.setJpaVendorAdapter(vendorAdapter);
+        // counts and times SQL per request for GET /rest/metrics
+        em.setJpaDialect(new MetricsJpaDialect(metricsRegistry));
+        em.setJpaProperties(additionalProperties());
+
+        return em;
+    }
+
+    @Profile("prod")
+    @Bean
+    public DataSource dataSource() {
+        HikariConfig config = poolConfig("rpg-pool");
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setJdbcUrl(environment.getRequiredProperty("db.url"));
+        config.setUsername(environment.getRequiredProperty("db.username"));
+        config.setPassword(environment.getRequiredProperty("db.password"));
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        // sends a JDBC batch of inserts as one multi-row INSERT
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        // honours the fetch size of streaming reads with a server-side cursor instead of buffering the whole result
+        config.addDataSourceProperty("useCursorFetch", "true");
+        HikariDataSource dataSource = new HikariDataSource(config);
+
+        // databases created by init.sql have no history table and are treated as already being at V1
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        return dataSource;
+    }
+
+    @Profile("dev")
+    @Bean(name = "dataSource")
+    public DataSource dataSourceForTests() {
+        String name = UUID.randomUUID().toString();
+
+        HikariConfig config = poolConfig("rpg-dev-pool-" + name);
+        config.setDriverClassName("org.h2.Driver");
+        config.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPassword("");
+        HikariDataSource dataSource = new HikariDataSource(config);
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("test.sql"));
+        populator.setSqlScriptEncoding("UTF-8");
+        populator.setIgnoreFailedDrops(true);
+        DatabasePopulatorUtils.execute(populator, dataSource);
+
+        return dataSource;
+    }
+
+    private HikariConfig poolConfig(String poolName) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setMinimumIdle(environment.getRequiredProperty("db.pool.minimumIdle", Integer.class));
+        config.setMaximumPoolSize(environment.getRequiredProperty("db.pool.maximumPoolSize", Integer.class));
+        config.setConnectionTimeout(environment.getRequiredProperty("db.pool.connectionTimeout", Long.class));
+        config.setValidationTimeout(environment.getRequiredProperty("db.pool.validationTimeout", Long.class));
+        config.setIdleTimeout(environment.getRequiredProperty("db.pool.idleTimeout", Long.class));
+        config.setMaxLifetime(environment.getRequiredProperty("db.pool.maxLifetime", Long.class));
+        config.setLeakDetectionThreshold(environment.getRequiredProperty("db.pool.leakDetectionThreshold", Long.class));
+        // exposes active/idle/pending connection counts as com.zaxxer.hikari:type=Pool (<poolName>)
+        config.setRegisterMbeans(environment.getRequiredProperty("db.pool.registerMbeans", Boolean.class));
+        config.setMetricsTrackerFactory((name, poolStats) -> {
+            metricsRegistry.setPoolStats(poolStats);
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    metricsRegistry.recordPoolWait(elapsedAcquiredNanos);
+                }
+            };
+        });
+
+        return config;
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory emf) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager();
+        transactionManager.setEntityManagerFactory(emf);
+
+        return transactionManager;
+    }
+
+    @Bean
+    public PersistenceExceptionTranslationPostProcessor exceptionTranslation() {
+        return new PersistenceExceptionTranslationPostProcessor();
+    }
+
+    private Properties additionalProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
+        // pads id lists from the n-gram index to powers of two so they share cached query plans
+        properties.setProperty("hibernate.query.in_clause_parameter_padding", "true");
+
+        properties.setProperty("hibernate.jdbc.batch_size", environment.getRequiredProperty("db.jdbc.batchSize"));
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.order_updates", "true");
+        // next_val in id_generator is the first free id of the next block. test.sql resets id_generator before
+        // every test, a cached block of ids would outlive it, so the dev profile takes one id at a time unless
+        // a test asks for the prod optimizer
+        String optimizer = environment.getProperty("db.id.optimizer",
+                environment.acceptsProfiles(Profiles.of("dev")) ? "none" : "pooled-lo");
+        properties.setProperty("hibernate.id.optimizer.pooled.preferred", optimizer);
+        // by default Hibernate would store the last id it handed out instead, one less than V3 and test.sql write
+        properties.setProperty("hibernate.id.generator.stored_last_used", "false");
+
+        // Player entities and filter queries are cached in Caffeine regions configured in application.conf
+        properties.setProperty("hibernate.cache.use_second_level_cache", environment.getRequiredProperty("db.cache.enabled"));
+        properties.setProperty("hibernate.cache.use_query_cache", environment.getRequiredProperty("db.cache.enabled"));
+        properties.setProperty("hibernate.cache.region.factory_class", "jcache");
+        properties.setProperty("hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+        properties.setProperty("hibernate.javax.cache.missing_cache_strategy", "fail");
+        // hit/miss counters for GET /rest/cache/statistics
+        properties.setProperty("hibernate.generate_statistics", "true");
+
+        return properties;
+    }
+}
@@ -23,6 +23,15 @@ public class MyWebAppInit extends AbstractAnnotationConfigDispatcherServletIniti
         return new Class[]{WebConfig.class};
     }
 
+    /**
+     * The player endpoints return futures completed on a separate executor, which needs async
+     * support on the dispatcher servlet and its filters.
+     */
+    @Override
+    protected boolean isAsyncSupported() {
+        return true;
+    }
+
     @Override
     protected String[] getServletMappings() {
         return new String[]{"/"};
@@ -1,14 +1,22 @@
 package com.game.config;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.metrics.MetricsRegistry;
+import com.game.metrics.RequestMetricsInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -19,9 +27,33 @@ import java.util.List;
 
 @Configuration
 @EnableWebMvc
-@ComponentScan("com.game")
+@ComponentScan("com.game.controller")
 public class WebConfig implements WebMvcConfigurer {
 
+    private ObjectMapper objectMapper;
+    private ObjectMapper smileObjectMapper;
+    private MetricsRegistry metricsRegistry;
+    private long asyncTimeout;
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Autowired
+    public void setSmileObjectMapper(@Qualifier("smileObjectMapper") ObjectMapper smileObjectMapper) {
+        this.smileObjectMapper = smileObjectMapper;
+    }
+
+    @Autowired
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Value("${db.executor.timeout}")
+    public void setAsyncTimeout(long asyncTimeout) {
+        this.asyncTimeout = asyncTimeout;
+    }
 
     @Bean
     public ViewResolver internalResourceViewResolver() {
@@ -42,11 +74,23 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/resources/**").addResourceLocations("/resources/");
     }
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestMetricsInterceptor(metricsRegistry)).addPathPatterns("/rest/**");
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // an expired request is answered with 503, the same as one rejected by the executor
+        configurer.setDefaultTimeout(asyncTimeout);
+    }
+
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-        converter.getObjectMapper().setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
-        converter.getObjectMapper().setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-        converters.add(converter);
+        // pre-serialized players from PlayerJsonCache are written as they are
+        converters.add(new ByteArrayHttpMessageConverter());
+        converters.add(new MappingJackson2HttpMessageConverter(objectMapper));
+        // only chosen when the Accept header asks for application/x-jackson-smile, JSON stays the default
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileObjectMapper));
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.game.controller;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/rest")
+public class CacheStatisticsController {
+
+    private Statistics statistics;
+
+    @Autowired
+    public CacheStatisticsController(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @GetMapping("/cache/statistics")
+    @ResponseStatus(HttpStatus.OK)
+    @ResponseBody
+    public Map<String, Long> read() {
+        Map<String, Long> result = new LinkedHashMap<>();
+
+        CacheRegionStatistics players = statistics.getDomainDataRegionStatistics("player");
+        result.put("playerHitCount", players.getHitCount());
+        result.put("playerMissCount", players.getMissCount());
+        result.put("playerPutCount", players.getPutCount());
+        result.put("playerElementCount", players.getElementCountInMemory());
+
+        result.put("queryHitCount", statistics.getQueryCacheHitCount());
+        result.put("queryMissCount", statistics.getQueryCacheMissCount());
+        result.put("queryPutCount", statistics.getQueryCachePutCount());
+
+        return result;
+    }
+}
@@ -0,0 +1,18 @@
+package com.game.controller;
+
+public enum ExportFormat {
+    JSON("application/json;charset=UTF-8"),
+    NDJSON("application/x-ndjson;charset=UTF-8"),
+    CSV("text/csv;charset=UTF-8"),
+    SMILE("application/x-jackson-smile");
+
+    private final String contentType;
+
+    ExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
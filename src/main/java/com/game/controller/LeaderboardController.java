@@ -0,0 +1,94 @@
+package com.game.controller;
+
+import com.game.BadRequestException;
+import com.game.PlayerNotFoundException;
+import com.game.ServiceUnavailableException;
+import com.game.index.LeaderboardEntry;
+import com.game.index.PlayerIndexes;
+import com.game.index.PlayerLeaderboard;
+import com.game.service.PlayerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Ranks by experience from {@link PlayerLeaderboard}. Nothing here reads the database, so the answers are
+ * computed on the request thread. While the board may miss changes of another process they are computed by
+ * the database instead, on the player executor.
+ */
+@RestController
+@RequestMapping("/rest")
+public class LeaderboardController {
+
+    static final int MAX_SIZE = 100;
+
+    private PlayerService playerService;
+    private PlayerLeaderboard playerLeaderboard;
+    private PlayerIndexes playerIndexes;
+    private Executor executor;
+
+    @Autowired
+    public LeaderboardController(PlayerService playerService, PlayerLeaderboard playerLeaderboard, PlayerIndexes playerIndexes,
+                                 @Qualifier("playerExecutor") Executor executor) {
+        this.playerService = playerService;
+        this.playerLeaderboard = playerLeaderboard;
+        this.playerIndexes = playerIndexes;
+        this.executor = executor;
+    }
+
+    @GetMapping("/players/{id}/rank")
+    @ResponseStatus(HttpStatus.OK)
+    @ResponseBody
+    public CompletableFuture<LeaderboardEntry> rank(@PathVariable(value = "id") String idString) {
+        Long id = playerService.checkId(idString);
+
+        return answer(() -> playerLeaderboard.rank(id), () -> playerService.rank(id));
+    }
+
+    /**
+     * The top {@code size} players, or {@code size} players around the one with id {@code around}.
+     */
+    @GetMapping("/leaderboard")
+    @ResponseStatus(HttpStatus.OK)
+    @ResponseBody
+    public CompletableFuture<List<LeaderboardEntry>> leaderboard(@RequestParam(value = "around", required = false) String around,
+                                                                 @RequestParam(value = "size", required = false, defaultValue = "10") Integer size) {
+        if (size < 1 || size > MAX_SIZE)
+            throw new BadRequestException();
+
+        if (around == null)
+            return answer(() -> playerLeaderboard.range(1, size), () -> playerService.topRanks(size));
+
+        Long id = playerService.checkId(around);
+        return answer(() -> playerLeaderboard.around(id, size), () -> playerService.ranksAround(id, size));
+    }
+
+    /**
+     * @param fromBoard answers from the board, on the request thread
+     * @param fromDatabase answers the same while the board is not current
+     */
+    private <T> CompletableFuture<T> answer(Supplier<T> fromBoard, Supplier<T> fromDatabase) {
+        if (playerIndexes.isCurrent())
+            return CompletableFuture.completedFuture(found(fromBoard.get()));
+
+        try {
+            return CompletableFuture.supplyAsync(() -> found(fromDatabase.get()), executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException();
+        }
+    }
+
+    private static <T> T found(T answer) {
+        if (answer == null)
+            throw new PlayerNotFoundException();
+
+        return answer;
+    }
+}
@@ -0,0 +1,29 @@
+package com.game.controller;
+
+import com.game.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/rest")
+public class MetricsController {
+
+    private MetricsRegistry metricsRegistry;
+
+    @Autowired
+    public MetricsController(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    /**
+     * Prometheus text exposition format, version 0.0.4.
+     */
+    @GetMapping("/metrics")
+    public void read(HttpServletResponse response) throws IOException {
+        response.setContentType("text/plain; version=0.0.4; charset=utf-8");
+        metricsRegistry.write(response.getWriter());
+    }
+}
@@ -1,65 +1,128 @@
 package com.game.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.BadRequestException;
+import com.game.ServiceUnavailableException;
 import com.game.entity.Player;
+import com.game.entity.PlayerOrder;
 import com.game.entity.Profession;
 import com.game.entity.Race;
+import com.game.index.ColumnFilter;
+import com.game.index.PlayerColumnStore;
+import com.game.index.PlayerCountAggregates;
+import com.game.index.PlayerIndexes;
+import com.game.index.PlayerJsonCache;
+import com.game.index.PlayerJsonCache.CachedJson;
+import com.game.service.ExperienceGrant;
+import com.game.service.ImportFormat;
+import com.game.service.PlayerBatchResult;
+import com.game.service.PlayerImporter;
 import com.game.service.PlayerService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/rest")
 public class PlayerController {
 
     private PlayerService playerService;
+    private PlayerImporter playerImporter;
+    private PlayerJsonCache playerJsonCache;
+    private PlayerColumnStore playerColumnStore;
+    private PlayerCountAggregates playerCountAggregates;
+    private PlayerIndexes playerIndexes;
+    private ObjectMapper objectMapper;
+    private ObjectMapper smileObjectMapper;
+    private Executor executor;
 
     @Autowired
-    public PlayerController(PlayerService playerService) {
+    public PlayerController(PlayerService playerService, PlayerImporter playerImporter, PlayerJsonCache playerJsonCache,
+                            PlayerColumnStore playerColumnStore, PlayerCountAggregates playerCountAggregates,
+                            PlayerIndexes playerIndexes, ObjectMapper objectMapper, @Qualifier("smileObjectMapper") ObjectMapper smileObjectMapper,
+                            @Qualifier("playerExecutor") Executor executor) {
         this.playerService = playerService;
+        this.playerImporter = playerImporter;
+        this.playerJsonCache = playerJsonCache;
+        this.playerColumnStore = playerColumnStore;
+        this.playerCountAggregates = playerCountAggregates;
+        this.playerIndexes = playerIndexes;
+        this.objectMapper = objectMapper;
+        this.smileObjectMapper = smileObjectMapper;
+        this.executor = executor;
     }
 
     @GetMapping("/players")
     @ResponseStatus(HttpStatus.OK)
     @ResponseBody
-    public List<Player> readAll(@RequestParam(value = "name", required = false) String name,
-                                                @RequestParam(value = "title", required = false) String title,
-                                                @RequestParam(value = "race", required = false) Race race,
-                                                @RequestParam(value = "profession", required = false) Profession profession,
-                                                @RequestParam(value = "after", required = false) Long after,
-                                                @RequestParam(value = "before", required = false) Long before,
-                                                @RequestParam(value = "banned", required = false) Boolean banned,
-                                                @RequestParam(value = "minExperience", required = false) Integer minExperience,
-                                                @RequestParam(value = "maxExperience", required = false) Integer maxExperience,
-                                                @RequestParam(value = "minLevel", required = false) Integer minLevel,
-                                                @RequestParam(value = "maxLevel", required = false) Integer maxLevel,
-                                                @RequestParam(value = "order", required = false, defaultValue = "ID") PlayerOrder order,
-                                                @RequestParam(value = "pageNumber", required = false, defaultValue = "0") Integer pageNumber,
-                                                @RequestParam(value = "pageSize", required = false, defaultValue = "3") Integer pageSize) {
-
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(order.getFieldName()));
-
-        return playerService.readAll(Specification.where(playerService.filterByName(name))
-                .and(playerService.filterByTitle(title))
-                .and(playerService.filterByRace(race))
-                .and(playerService.filterByProfession(profession))
-                .and(playerService.filterByDate(after, before))
-                .and(playerService.filterByBanned(banned))
-                .and(playerService.filterByExperience(minExperience, maxExperience))
-                .and(playerService.filterByLevel(minLevel, maxLevel)), pageable).getContent();
+    public CompletableFuture<List<?>> readAll(@RequestParam(value = "name", required = false) String name,
+                                           @RequestParam(value = "title", required = false) String title,
+                                           @RequestParam(value = "race", required = false) Race race,
+                                           @RequestParam(value = "profession", required = false) Profession profession,
+                                           @RequestParam(value = "after", required = false) Long after,
+                                           @RequestParam(value = "before", required = false) Long before,
+                                           @RequestParam(value = "banned", required = false) Boolean banned,
+                                           @RequestParam(value = "minExperience", required = false) Integer minExperience,
+                                           @RequestParam(value = "maxExperience", required = false) Integer maxExperience,
+                                           @RequestParam(value = "minLevel", required = false) Integer minLevel,
+                                           @RequestParam(value = "maxLevel", required = false) Integer maxLevel,
+                                           @RequestParam(value = "order", required = false, defaultValue = "ID") PlayerOrder order,
+                                           @RequestParam(value = "pageNumber", required = false, defaultValue = "0") Integer pageNumber,
+                                           @RequestParam(value = "pageSize", required = false, defaultValue = "3") Integer pageSize,
+                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam(value = "fields", required = false) List<String> fields) {
+
+        Sort sort = sortBy(order);
+        // cursor mode seeks past the last row of the previous page instead of skipping pageNumber * pageSize rows
+        Pageable pageable = cursor == null
+                ? PageRequest.of(pageNumber, pageSize, sort)
+                : PageRequest.of(0, pageSize, sort);
+
+        if (fields == null && cursor == null && usesColumnStore(name, title) && playerColumnStore.supports(order)) {
+            ColumnFilter columnFilter = new ColumnFilter(race, profession, after, before, banned,
+                    minExperience, maxExperience, minLevel, maxLevel);
+            return CompletableFuture.completedFuture(playerColumnStore.find(columnFilter, order,
+                    pageable.getOffset(), pageable.getPageSize()));
+        }
+
+        Specification<Player> specification = filter(name, title, race, profession, after, before, banned,
+                minExperience, maxExperience, minLevel, maxLevel)
+                .and(playerService.filterByCursor(order, cursor));
+
+        // only the requested columns are selected, as plain values instead of entities
+        if (fields != null)
+            return async(() -> playerService.readAll(specification, pageable, fields).getContent());
+
+        return async(() -> playerService.readAll(specification, pageable).getContent());
     }
 
     @GetMapping("/players/count")
     @ResponseStatus(HttpStatus.OK)
     @ResponseBody
-    public Integer getCount(@RequestParam(value = "name", required = false) String name,
+    public CompletableFuture<Long> getCount(@RequestParam(value = "name", required = false) String name,
                             @RequestParam(value = "title", required = false) String title,
                             @RequestParam(value = "race", required = false) Race race,
                             @RequestParam(value = "profession", required = false) Profession profession,
@@ -71,47 +134,211 @@ public class PlayerController {
                             @RequestParam(value = "minLevel", required = false) Integer minLevel,
                             @RequestParam(value = "maxLevel", required = false) Integer maxLevel) {
 
-        return playerService.readAll(Specification.where(playerService.filterByName(name))
-                .and(playerService.filterByTitle(title))
-                .and(playerService.filterByRace(race))
-                .and(playerService.filterByProfession(profession))
-                .and(playerService.filterByDate(after, before))
-                .and(playerService.filterByBanned(banned))
-                .and(playerService.filterByExperience(minExperience, maxExperience))
-                .and(playerService.filterByLevel(minLevel, maxLevel))).size();
+        // like the list, answered by the database while the in-memory copies may miss another process's writes
+        if (name == null && title == null && playerIndexes.isCurrent()) {
+            ColumnFilter columnFilter = new ColumnFilter(race, profession, after, before, banned,
+                    minExperience, maxExperience, minLevel, maxLevel);
+
+            long count = playerCountAggregates.count(columnFilter);
+            if (count >= 0)
+                return CompletableFuture.completedFuture(count);
+
+            if (usesColumnStore(name, title))
+                return CompletableFuture.completedFuture(playerColumnStore.count(columnFilter));
+        }
+
+        Specification<Player> specification = filter(name, title, race, profession, after, before, banned,
+                minExperience, maxExperience, minLevel, maxLevel);
+
+        return async(() -> playerService.count(specification));
     }
 
+    /**
+     * Streams every matching player instead of one page. {@code format} is JSON (an array),
+     * NDJSON (one object per line), CSV (with a header row) or SMILE (a binary array). Without it
+     * the Accept header decides between SMILE and JSON.
+     */
+    @GetMapping("/players/export")
+    public void export(@RequestParam(value = "name", required = false) String name,
+                       @RequestParam(value = "title", required = false) String title,
+                       @RequestParam(value = "race", required = false) Race race,
+                       @RequestParam(value = "profession", required = false) Profession profession,
+                       @RequestParam(value = "after", required = false) Long after,
+                       @RequestParam(value = "before", required = false) Long before,
+                       @RequestParam(value = "banned", required = false) Boolean banned,
+                       @RequestParam(value = "minExperience", required = false) Integer minExperience,
+                       @RequestParam(value = "maxExperience", required = false) Integer maxExperience,
+                       @RequestParam(value = "minLevel", required = false) Integer minLevel,
+                       @RequestParam(value = "maxLevel", required = false) Integer maxLevel,
+                       @RequestParam(value = "order", required = false, defaultValue = "ID") PlayerOrder order,
+                       @RequestParam(value = "format", required = false) ExportFormat format,
+                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                       HttpServletResponse response) throws IOException {
+
+        if (format == null)
+            format = acceptsSmile(accept) ? ExportFormat.SMILE : ExportFormat.JSON;
+
+        response.setContentType(format.getContentType());
+        PlayerExportWriter writer = PlayerExportWriter.create(format, response.getOutputStream(),
+                objectMapper, smileObjectMapper);
+        playerService.export(filter(name, title, race, profession, after, before, banned,
+                minExperience, maxExperience, minLevel, maxLevel), sortBy(order), writer);
+        writer.finish();
+    }
+
+    /**
+     * Answers from the serialized JSON in {@link PlayerJsonCache}. The response carries an ETag,
+     * so a matching {@code If-None-Match} gets 304 without a body. While the cache may hold players
+     * another process has changed, the player is read and serialized again, without an ETag.
+     */
     @GetMapping("/players/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    @ResponseBody
-    public Player read(@PathVariable(value = "id") String idString) {
+    public CompletableFuture<ResponseEntity<byte[]>> read(@PathVariable(value = "id") String idString) {
         Long id = playerService.checkId(idString);
 
-        return playerService.read(id);
+        return async(() -> {
+            try {
+                if (!playerIndexes.isCurrent())
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(objectMapper.writeValueAsBytes(playerService.read(id)));
+
+                CachedJson json = playerJsonCache.getOrLoad(id,
+                        playerId -> objectMapper.writeValueAsBytes(playerService.read(playerId)));
+
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .eTag(json.getETag())
+                        .body(json.getJson());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
     @PostMapping("/players")
     @ResponseStatus(HttpStatus.OK)
     @ResponseBody
-    public Player addShip(@RequestBody Player player) {
-        return playerService.create(player);
+    public CompletableFuture<Player> addShip(@RequestBody Player player) {
+        return async(() -> playerService.create(player));
+    }
+
+    @PostMapping("/players/batch")
+    @ResponseStatus(HttpStatus.OK)
+    @ResponseBody
+    public CompletableFuture<List<PlayerBatchResult>> createAll(@RequestBody List<Player> players) {
+        return async(() -> playerService.createAll(players));
+    }
+
+    /**
+     * Creates players from an NDJSON or CSV request body, committing every {@code chunkSize} records.
+     * The response is NDJSON with one progress report per committed chunk; the last one has {@code done} set.
+     */
+    @PostMapping("/players/import")
+    public void importPlayers(@RequestParam(value = "format", required = false, defaultValue = "NDJSON") ImportFormat format,
+                              @RequestParam(value = "chunkSize", required = false) Integer chunkSize,
+                              HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+
+        response.setContentType(ExportFormat.NDJSON.getContentType());
+        OutputStream out = response.getOutputStream();
+        Reader body = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+
+        playerImporter.importPlayers(body, format, chunkSize, progress -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(progress));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @PostMapping("/players/experience")
+    @ResponseStatus(HttpStatus.OK)
+    @ResponseBody
+    public CompletableFuture<List<PlayerBatchResult>> grantExperience(@RequestBody List<ExperienceGrant> grants) {
+        return async(() -> playerService.grantExperience(grants));
     }
 
     @PostMapping("/players/{id}")
     @ResponseStatus(HttpStatus.OK)
     @ResponseBody
-    public Player update(@PathVariable(value = "id") String idString, @RequestBody Player player) {
+    public CompletableFuture<Player> update(@PathVariable(value = "id") String idString, @RequestBody Player player) {
         Long id = playerService.checkId(idString);
 
-        return playerService.update(player, id);
+        return async(() -> playerService.update(player, id));
     }
 
     @DeleteMapping("/players/{id}")
     @ResponseStatus(HttpStatus.OK)
     @ResponseBody
-    public void delete(@PathVariable(value = "id") String idString) {
+    public CompletableFuture<Void> delete(@PathVariable(value = "id") String idString) {
         Long id = playerService.checkId(idString);
 
-        playerService.delete(id);
+        return async(() -> {
+            playerService.delete(id);
+            return null;
+        });
+    }
+
+    /**
+     * The column store has no database work to hand to the executor, so its answers are completed on the
+     * request thread. Substring filters on name and title are left to the database collation, and so is
+     * everything while the store may miss another process's writes or has left out a player with NULLs.
+     */
+    private boolean usesColumnStore(String name, String title) {
+        return playerColumnStore.isEnabled() && name == null && title == null && playerIndexes.isCurrent()
+                && playerColumnStore.isComplete();
+    }
+
+    private static boolean acceptsSmile(String accept) {
+        if (accept == null)
+            return false;
+
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (mediaType.getType().equals("application") && mediaType.getSubtype().equals("x-jackson-smile"))
+                    return true;
+            }
+        } catch (InvalidMediaTypeException e) {
+            throw new BadRequestException();
+        }
+
+        return false;
+    }
+
+    /**
+     * Runs the database part of a request on the player executor and releases the container thread.
+     * When the executor queue is full the request is answered with 503 right away.
+     */
+    private <T> CompletableFuture<T> async(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException();
+        }
+    }
+
+    // package-private for PlayerQueryBenchmark
+    Specification<Player> filter(String name, String title, Race race, Profession profession,
+                                 Long after, Long before, Boolean banned,
+                                 Integer minExperience, Integer maxExperience,
+                                 Integer minLevel, Integer maxLevel) {
+        return Specification.where(playerService.filterByName(name))
+                .and(playerService.filterByTitle(title))
+                .and(playerService.filterByRace(race))
+                .and(playerService.filterByProfession(profession))
+                .and(playerService.filterByDate(after, before))
+                .and(playerService.filterByBanned(banned))
+                .and(playerService.filterByExperience(minExperience, maxExperience))
+                .and(playerService.filterByLevel(minLevel, maxLevel));
+    }
+
+    /**
+     * id breaks ties so that a cursor taken from the last row of a page is unambiguous.
+     */
+    private Sort sortBy(PlayerOrder order) {
+        return order == PlayerOrder.ID ? Sort.by("id") : Sort.by(order.getFieldName(), "id");
     }
 }
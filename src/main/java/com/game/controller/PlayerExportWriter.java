@@ -0,0 +1,145 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.game.entity.Player;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes players to the response one at a time as they come from the database cursor,
+ * so that an export never holds more than one player in memory.
+ * <p>
+ * The output is only ended, and the stream closed, by {@link #finish()} after the last player. An export that fails
+ * midway leaves the response open without its end, so that the error reaches the container, which answers 500 if
+ * nothing was sent yet and aborts the connection otherwise, instead of a truncated body that looks complete.
+ */
+abstract class PlayerExportWriter implements Consumer<Player> {
+
+    static PlayerExportWriter create(ExportFormat format, OutputStream out, ObjectMapper objectMapper,
+                                     ObjectMapper smileObjectMapper) throws IOException {
+        switch (format) {
+            case NDJSON:
+                return new JsonWriter(out, objectMapper, false);
+            case CSV:
+                return new CsvWriter(out);
+            case SMILE:
+                return new JsonWriter(out, smileObjectMapper, true);
+            default:
+                return new JsonWriter(out, objectMapper, true);
+        }
+    }
+
+    @Override
+    public void accept(Player player) {
+        try {
+            write(player);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    abstract void write(Player player) throws IOException;
+
+    /**
+     * Ends the output after the last player and closes the stream.
+     */
+    abstract void finish() throws IOException;
+
+    private static class JsonWriter extends PlayerExportWriter {
+        private final JsonGenerator generator;
+        private final ObjectWriter writer;
+        private final boolean array;
+
+        JsonWriter(OutputStream out, ObjectMapper objectMapper, boolean array) throws IOException {
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            this.writer = array ? writer : writer.withRootValueSeparator("\n");
+            this.array = array;
+
+            if (array)
+                generator.writeStartArray();
+        }
+
+        @Override
+        void write(Player player) throws IOException {
+            writer.writeValue(generator, player);
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (array)
+                generator.writeEndArray();
+            else
+                generator.writeRaw('\n');
+            generator.close();
+        }
+    }
+
+    private static class CsvWriter extends PlayerExportWriter {
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("id,name,title,race,profession,birthday,banned,experience,level,untilNextLevel\n");
+        }
+
+        @Override
+        void write(Player player) throws IOException {
+            writer.write(String.valueOf(player.getId()));
+            writer.write(',');
+            writeText(player.getName());
+            writer.write(',');
+            writeText(player.getTitle());
+            writer.write(',');
+            writeValue(player.getRace());
+            writer.write(',');
+            writeValue(player.getProfession());
+            writer.write(',');
+            writeValue(player.getBirthday() == null ? null : player.getBirthday().getTime());
+            writer.write(',');
+            writeValue(player.getBanned());
+            writer.write(',');
+            writeValue(player.getExperience());
+            writer.write(',');
+            writeValue(player.getLevel());
+            writer.write(',');
+            writeValue(player.getUntilNextLevel());
+            writer.write('\n');
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value != null)
+                writer.write(value.toString());
+        }
+
+        private void writeText(String value) throws IOException {
+            if (value == null)
+                return;
+
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.close();
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.game.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.Date;
 
 
 @Entity
 @Table(name = "player")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "player")
 public class Player {
     @Id()
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // table-backed ids are allocated in blocks, which unlike IDENTITY lets Hibernate batch inserts
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "player_id")
+    @TableGenerator(name = "player_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "player", allocationSize = 50)
     private Long id;
 
     @Column(name = "name")
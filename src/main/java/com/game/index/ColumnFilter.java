@@ -0,0 +1,70 @@
+package com.game.index;
+
+import com.game.entity.Profession;
+import com.game.entity.Race;
+
+/**
+ * The filters of {@code GET /rest/players} that {@link PlayerColumnStore} can evaluate. Null means no
+ * restriction; ranges are inclusive like the SQL {@code BETWEEN} of the JPA path.
+ */
+public final class ColumnFilter {
+
+    private final Race race;
+    private final Profession profession;
+    private final Long after;
+    private final Long before;
+    private final Boolean banned;
+    private final Integer minExperience;
+    private final Integer maxExperience;
+    private final Integer minLevel;
+    private final Integer maxLevel;
+
+    public ColumnFilter(Race race, Profession profession, Long after, Long before, Boolean banned,
+                        Integer minExperience, Integer maxExperience, Integer minLevel, Integer maxLevel) {
+        this.race = race;
+        this.profession = profession;
+        this.after = after;
+        this.before = before;
+        this.banned = banned;
+        this.minExperience = minExperience;
+        this.maxExperience = maxExperience;
+        this.minLevel = minLevel;
+        this.maxLevel = maxLevel;
+    }
+
+    public Race getRace() {
+        return race;
+    }
+
+    public Profession getProfession() {
+        return profession;
+    }
+
+    public Long getAfter() {
+        return after;
+    }
+
+    public Long getBefore() {
+        return before;
+    }
+
+    public Boolean getBanned() {
+        return banned;
+    }
+
+    public Integer getMinExperience() {
+        return minExperience;
+    }
+
+    public Integer getMaxExperience() {
+        return maxExperience;
+    }
+
+    public Integer getMinLevel() {
+        return minLevel;
+    }
+
+    public Integer getMaxLevel() {
+        return maxLevel;
+    }
+}
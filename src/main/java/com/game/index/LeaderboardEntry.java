@@ -0,0 +1,41 @@
+package com.game.index;
+
+/**
+ * A player's place in {@link PlayerLeaderboard}. Rank 1 has the most experience.
+ */
+public final class LeaderboardEntry {
+
+    private final long rank;
+    private final Long id;
+    private final String name;
+    private final Integer experience;
+    private final Integer level;
+
+    public LeaderboardEntry(long rank, Long id, String name, Integer experience, Integer level) {
+        this.rank = rank;
+        this.id = id;
+        this.name = name;
+        this.experience = experience;
+        this.level = level;
+    }
+
+    public long getRank() {
+        return rank;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getExperience() {
+        return experience;
+    }
+
+    public Integer getLevel() {
+        return level;
+    }
+}
@@ -0,0 +1,471 @@
+package com.game.index;
+
+import com.game.entity.Player;
+import com.game.entity.PlayerOrder;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import com.game.service.Birthdays;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented copy of the player table that answers {@code GET /rest/players} and {@code /count}
+ * without the database when only the filters of {@link ColumnFilter} are used.
+ * <p>
+ * Every attribute is a primitive array (enums as ordinal bytes, birthdays as epoch millis). Row i of every
+ * column belongs to the player with the i-th smallest id. Banned and every race and profession value also have
+ * a bitmap of their rows, so those filters are a word-by-word AND and a count is a popcount. A query starts with
+ * a bitmap of all rows and each range filter clears the rows it rejects, one 64-row word at a time in a loop over
+ * a single column. Ordering by id is then the order of the set bits.
+ * <p>
+ * Name and title filters and ordering by name stay on the JPA path: their result depends on the collation of
+ * the database. Off unless {@code replica.enabled} is set, since it keeps every player in memory.
+ * <p>
+ * The columns allow NULL, which a primitive array cannot hold. Players written with a NULL outside name and
+ * title, by another process or by hand, are not stored, and {@link #isComplete()} sends queries to the database
+ * until they are fixed or deleted.
+ */
+@Component
+public class PlayerColumnStore implements PlayerIndex {
+
+    private static final Race[] RACES = Race.values();
+    private static final Profession[] PROFESSIONS = Profession.values();
+    private static final int MIN_CAPACITY = 64;
+
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int size;
+    private long[] ids = new long[0];
+    private String[] names = new String[0];
+    private String[] titles = new String[0];
+    private byte[] races = new byte[0];
+    private byte[] professions = new byte[0];
+    private long[] birthdays = new long[0];
+    private int[] experiences = new int[0];
+    private int[] levels = new int[0];
+    private int[] untilNextLevels = new int[0];
+    private long[] banned = new long[0];
+    private long[][] raceRows = new long[RACES.length][0];
+    private long[][] professionRows = new long[PROFESSIONS.length][0];
+    private final Set<Long> incompleteIds = new HashSet<>();
+
+    @Autowired
+    public PlayerColumnStore(@Value("${replica.enabled}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return false while a player with a NULL attribute is left out of the store
+     */
+    public boolean isComplete() {
+        lock.readLock().lock();
+        try {
+            return incompleteIds.isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean supports(PlayerOrder order) {
+        return order != PlayerOrder.NAME;
+    }
+
+    public long count(ColumnFilter filter) {
+        lock.readLock().lock();
+        try {
+            long count = 0;
+            for (long word : scan(filter))
+                count += Long.bitCount(word);
+
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return detached copies of the matching players from {@code offset} on, sorted by {@code order} and then id
+     */
+    public List<Player> find(ColumnFilter filter, PlayerOrder order, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            long[] rows = scan(filter);
+            List<Player> players = new ArrayList<>();
+
+            if (order == PlayerOrder.ID) {
+                long skipped = 0;
+                for (int row = nextRow(rows, 0); row >= 0 && players.size() < limit; row = nextRow(rows, row + 1)) {
+                    if (skipped++ >= offset)
+                        players.add(toPlayer(row));
+                }
+                return players;
+            }
+
+            Integer[] sorted = new Integer[countRows(rows)];
+            int count = 0;
+            for (int row = nextRow(rows, 0); row >= 0; row = nextRow(rows, row + 1))
+                sorted[count++] = row;
+
+            // the sort is stable, so equal keys keep the id order of the rows
+            Arrays.sort(sorted, comparator(order));
+
+            for (long i = offset; i < count && players.size() < limit; i++)
+                players.add(toPlayer(sorted[(int) i]));
+
+            return players;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void rebuild(Iterable<Player> players) {
+        if (!enabled)
+            return;
+
+        List<Player> sorted = new ArrayList<>();
+        Set<Long> incomplete = new HashSet<>();
+        for (Player player : players) {
+            if (isComplete(player))
+                sorted.add(player);
+            else
+                incomplete.add(player.getId());
+        }
+        sorted.sort(Comparator.comparing(Player::getId));
+
+        lock.writeLock().lock();
+        try {
+            incompleteIds.clear();
+            incompleteIds.addAll(incomplete);
+            size = 0;
+            allocate(Math.max(MIN_CAPACITY, sorted.size()));
+            for (Player player : sorted)
+                setRow(size++, player);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onSave(Player player) {
+        if (!enabled)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            int row = Arrays.binarySearch(ids, 0, size, player.getId());
+            if (!isComplete(player)) {
+                if (row >= 0)
+                    removeRow(row);
+                incompleteIds.add(player.getId());
+                return;
+            }
+
+            incompleteIds.remove(player.getId());
+            if (row < 0) {
+                row = -row - 1;
+                insertRow(row);
+            }
+            setRow(row, player);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDelete(Long id) {
+        if (!enabled)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            incompleteIds.remove(id);
+            int row = Arrays.binarySearch(ids, 0, size, id);
+            if (row >= 0)
+                removeRow(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long[] scan(ColumnFilter filter) {
+        long[] rows = new long[words(size)];
+        Arrays.fill(rows, -1L);
+        if (size % 64 != 0)
+            rows[rows.length - 1] = -1L >>> (64 - size % 64);
+
+        if (filter.getBanned() != null) {
+            for (int word = 0; word < rows.length; word++)
+                rows[word] &= filter.getBanned() ? banned[word] : ~banned[word];
+        }
+
+        if (filter.getRace() != null)
+            keepAll(rows, raceRows[filter.getRace().ordinal()]);
+
+        if (filter.getProfession() != null)
+            keepAll(rows, professionRows[filter.getProfession().ordinal()]);
+
+        if (filter.getAfter() != null || filter.getBefore() != null)
+            keepBetween(rows, birthdays,
+                    filter.getAfter() == null ? Long.MIN_VALUE : filter.getAfter(),
+                    filter.getBefore() == null ? Long.MAX_VALUE : filter.getBefore());
+
+        if (filter.getMinExperience() != null || filter.getMaxExperience() != null)
+            keepBetween(rows, experiences,
+                    filter.getMinExperience() == null ? Integer.MIN_VALUE : filter.getMinExperience(),
+                    filter.getMaxExperience() == null ? Integer.MAX_VALUE : filter.getMaxExperience());
+
+        if (filter.getMinLevel() != null || filter.getMaxLevel() != null)
+            keepBetween(rows, levels,
+                    filter.getMinLevel() == null ? Integer.MIN_VALUE : filter.getMinLevel(),
+                    filter.getMaxLevel() == null ? Integer.MAX_VALUE : filter.getMaxLevel());
+
+        return rows;
+    }
+
+    private static void keepAll(long[] rows, long[] bitmap) {
+        for (int word = 0; word < rows.length; word++)
+            rows[word] &= bitmap[word];
+    }
+
+    // the inner loops have no branches, so each word is a straight pass over 64 values of one column
+
+    private void keepBetween(long[] rows, int[] column, int min, int max) {
+        for (int word = 0; word < rows.length; word++) {
+            if (rows[word] == 0)
+                continue;
+
+            int start = word << 6;
+            int end = Math.min(size, start + 64);
+            long bits = 0;
+            for (int row = start; row < end; row++)
+                bits |= (column[row] >= min & column[row] <= max ? 1L : 0L) << row;
+            rows[word] &= bits;
+        }
+    }
+
+    private void keepBetween(long[] rows, long[] column, long min, long max) {
+        for (int word = 0; word < rows.length; word++) {
+            if (rows[word] == 0)
+                continue;
+
+            int start = word << 6;
+            int end = Math.min(size, start + 64);
+            long bits = 0;
+            for (int row = start; row < end; row++)
+                bits |= (column[row] >= min & column[row] <= max ? 1L : 0L) << row;
+            rows[word] &= bits;
+        }
+    }
+
+    private static int nextRow(long[] rows, int from) {
+        int word = from >>> 6;
+        if (word >= rows.length)
+            return -1;
+
+        long bits = rows[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == rows.length)
+                return -1;
+            bits = rows[word];
+        }
+
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    private static int countRows(long[] rows) {
+        int count = 0;
+        for (long word : rows)
+            count += Long.bitCount(word);
+
+        return count;
+    }
+
+    private Comparator<Integer> comparator(PlayerOrder order) {
+        switch (order) {
+            case EXPERIENCE:
+                return Comparator.comparingInt(row -> experiences[row]);
+            case LEVEL:
+                return Comparator.comparingInt(row -> levels[row]);
+            case BIRTHDAY:
+                return Comparator.comparingLong(row -> birthdays[row]);
+            default:
+                throw new IllegalArgumentException("Unsupported order " + order);
+        }
+    }
+
+    private Player toPlayer(int row) {
+        Player player = new Player();
+        player.setId(ids[row]);
+        player.setName(names[row]);
+        player.setTitle(titles[row]);
+        player.setRace(RACES[races[row]]);
+        player.setProfession(PROFESSIONS[professions[row]]);
+        player.setBirthday(new Date(birthdays[row]));
+        player.setBanned(getBit(banned, row));
+        player.setExperience(experiences[row]);
+        player.setLevel(levels[row]);
+        player.setUntilNextLevel(untilNextLevels[row]);
+
+        return player;
+    }
+
+    private static boolean isComplete(Player player) {
+        return player.getRace() != null && player.getProfession() != null && player.getBirthday() != null
+                && player.getBanned() != null && player.getExperience() != null && player.getLevel() != null
+                && player.getUntilNextLevel() != null;
+    }
+
+    private void setRow(int row, Player player) {
+        ids[row] = player.getId();
+        names[row] = player.getName();
+        titles[row] = player.getTitle();
+        setBit(raceRows[races[row]], row, false);
+        setBit(professionRows[professions[row]], row, false);
+        races[row] = (byte) player.getRace().ordinal();
+        professions[row] = (byte) player.getProfession().ordinal();
+        setBit(raceRows[races[row]], row, true);
+        setBit(professionRows[professions[row]], row, true);
+        // the day the DATE column keeps, for players saved with a time of day
+        birthdays[row] = Birthdays.startOfDay(player.getBirthday()).getTime();
+        setBit(banned, row, Boolean.TRUE.equals(player.getBanned()));
+        experiences[row] = player.getExperience();
+        levels[row] = player.getLevel();
+        untilNextLevels[row] = player.getUntilNextLevel();
+    }
+
+    private void insertRow(int row) {
+        if (size == ids.length)
+            resize(Math.max(MIN_CAPACITY, size * 2));
+
+        int moved = size - row;
+        System.arraycopy(ids, row, ids, row + 1, moved);
+        System.arraycopy(names, row, names, row + 1, moved);
+        System.arraycopy(titles, row, titles, row + 1, moved);
+        System.arraycopy(races, row, races, row + 1, moved);
+        System.arraycopy(professions, row, professions, row + 1, moved);
+        System.arraycopy(birthdays, row, birthdays, row + 1, moved);
+        System.arraycopy(experiences, row, experiences, row + 1, moved);
+        System.arraycopy(levels, row, levels, row + 1, moved);
+        System.arraycopy(untilNextLevels, row, untilNextLevels, row + 1, moved);
+        insertBit(banned, row, size);
+        for (long[] bitmap : raceRows)
+            insertBit(bitmap, row, size);
+        for (long[] bitmap : professionRows)
+            insertBit(bitmap, row, size);
+
+        size++;
+    }
+
+    private void removeRow(int row) {
+        int moved = size - row - 1;
+        System.arraycopy(ids, row + 1, ids, row, moved);
+        System.arraycopy(names, row + 1, names, row, moved);
+        System.arraycopy(titles, row + 1, titles, row, moved);
+        System.arraycopy(races, row + 1, races, row, moved);
+        System.arraycopy(professions, row + 1, professions, row, moved);
+        System.arraycopy(birthdays, row + 1, birthdays, row, moved);
+        System.arraycopy(experiences, row + 1, experiences, row, moved);
+        System.arraycopy(levels, row + 1, levels, row, moved);
+        System.arraycopy(untilNextLevels, row + 1, untilNextLevels, row, moved);
+        removeBit(banned, row, size);
+        for (long[] bitmap : raceRows)
+            removeBit(bitmap, row, size);
+        for (long[] bitmap : professionRows)
+            removeBit(bitmap, row, size);
+
+        size--;
+        names[size] = null;
+        titles[size] = null;
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        names = new String[capacity];
+        titles = new String[capacity];
+        races = new byte[capacity];
+        professions = new byte[capacity];
+        birthdays = new long[capacity];
+        experiences = new int[capacity];
+        levels = new int[capacity];
+        untilNextLevels = new int[capacity];
+        banned = new long[words(capacity)];
+        raceRows = new long[RACES.length][words(capacity)];
+        professionRows = new long[PROFESSIONS.length][words(capacity)];
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        races = Arrays.copyOf(races, capacity);
+        professions = Arrays.copyOf(professions, capacity);
+        birthdays = Arrays.copyOf(birthdays, capacity);
+        experiences = Arrays.copyOf(experiences, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        untilNextLevels = Arrays.copyOf(untilNextLevels, capacity);
+        banned = Arrays.copyOf(banned, words(capacity));
+        for (int i = 0; i < raceRows.length; i++)
+            raceRows[i] = Arrays.copyOf(raceRows[i], words(capacity));
+        for (int i = 0; i < professionRows.length; i++)
+            professionRows[i] = Arrays.copyOf(professionRows[i], words(capacity));
+    }
+
+    private static boolean getBit(long[] bitmap, int row) {
+        return (bitmap[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private static void setBit(long[] bitmap, int row, boolean value) {
+        if (value)
+            bitmap[row >>> 6] |= 1L << row;
+        else
+            bitmap[row >>> 6] &= ~(1L << row);
+    }
+
+    /**
+     * Moves the bits from {@code row} up to {@code size} one position up a word at a time, leaving {@code row} clear.
+     */
+    private static void insertBit(long[] bitmap, int row, int size) {
+        int first = row >>> 6;
+        for (int word = size >>> 6; word > first; word--)
+            bitmap[word] = (bitmap[word] << 1) | (bitmap[word - 1] >>> 63);
+
+        long below = bitmap[first] & ~(-1L << row);
+        bitmap[first] = below | ((bitmap[first] & (-1L << row)) << 1);
+    }
+
+    /**
+     * Drops the bit of {@code row} and moves the bits above it, up to {@code size}, one position down.
+     */
+    private static void removeBit(long[] bitmap, int row, int size) {
+        int first = row >>> 6;
+        int last = (size - 1) >>> 6;
+
+        long below = bitmap[first] & ~(-1L << row);
+        bitmap[first] = below | ((bitmap[first] >>> 1) & (-1L << row));
+        for (int word = first; word < last; word++) {
+            bitmap[word] |= bitmap[word + 1] << 63;
+            bitmap[word + 1] >>>= 1;
+        }
+    }
+
+    private static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+}
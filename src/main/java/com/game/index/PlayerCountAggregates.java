@@ -0,0 +1,200 @@
+package com.game.index;
+
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import com.game.service.LevelCalculator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Player counts for {@code GET /rest/players/count}, kept per (race, profession, banned) cell.
+ * <p>
+ * A filter on race, profession and banned only adds up the totals of the matching cells. Each cell also has a
+ * Fenwick tree of its counts per level, so a level range is two prefix sums per cell. An experience range is
+ * answered as a level range when both of its ends fall on level boundaries. Anything else, a split level or a
+ * birthday range, returns -1 and is left to the database.
+ * <p>
+ * A player with a NULL race, profession, banned, experience or level has no cell. Until it is fixed or deleted
+ * every count returns -1 as well.
+ */
+@Component
+public class PlayerCountAggregates implements PlayerIndex {
+
+    private static final int RACES = Race.values().length;
+    private static final int PROFESSIONS = Profession.values().length;
+    private static final int LEVELS = LevelCalculator.MAX_LEVEL + 1;
+
+    private final LevelCalculator levelCalculator;
+
+    private final long[] totals = new long[RACES * PROFESSIONS * 2];
+    // 1-based Fenwick tree over the levels of each cell
+    private final long[][] levelTrees = new long[totals.length][LEVELS + 1];
+    // cell * LEVELS + level of every player, to take it out of its old cell when it changes
+    private final Map<Long, Integer> keys = new HashMap<>();
+    private final Set<Long> incompleteIds = new HashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public PlayerCountAggregates(LevelCalculator levelCalculator) {
+        this.levelCalculator = levelCalculator;
+    }
+
+    /**
+     * @return the number of players matching {@code filter}, or -1 if it cannot be answered from the counts
+     */
+    public long count(ColumnFilter filter) {
+        if (filter.getAfter() != null || filter.getBefore() != null)
+            return -1;
+
+        int minLevel = filter.getMinLevel() == null ? 0 : Math.max(0, filter.getMinLevel());
+        int maxLevel = filter.getMaxLevel() == null ? LevelCalculator.MAX_LEVEL : Math.min(LevelCalculator.MAX_LEVEL, filter.getMaxLevel());
+
+        if (filter.getMinExperience() != null && filter.getMinExperience() > 0) {
+            if (filter.getMinExperience() > LevelCalculator.MAX_EXPERIENCE)
+                return 0;
+
+            int level = levelCalculator.level(filter.getMinExperience());
+            if (levelCalculator.levelStart(level) != filter.getMinExperience())
+                return -1;
+            minLevel = Math.max(minLevel, level);
+        }
+
+        if (filter.getMaxExperience() != null && filter.getMaxExperience() < LevelCalculator.MAX_EXPERIENCE) {
+            if (filter.getMaxExperience() < 0)
+                return 0;
+
+            int level = levelCalculator.level(filter.getMaxExperience());
+            if (levelCalculator.levelStart(level + 1) != filter.getMaxExperience() + 1)
+                return -1;
+            maxLevel = Math.min(maxLevel, level);
+        }
+
+        if (minLevel > maxLevel)
+            return 0;
+        boolean allLevels = minLevel == 0 && maxLevel == LevelCalculator.MAX_LEVEL;
+
+        lock.readLock().lock();
+        try {
+            if (!incompleteIds.isEmpty())
+                return -1;
+
+            long count = 0;
+            for (int race = 0; race < RACES; race++) {
+                if (filter.getRace() != null && filter.getRace().ordinal() != race)
+                    continue;
+
+                for (int profession = 0; profession < PROFESSIONS; profession++) {
+                    if (filter.getProfession() != null && filter.getProfession().ordinal() != profession)
+                        continue;
+
+                    for (int banned = 0; banned < 2; banned++) {
+                        if (filter.getBanned() != null && filter.getBanned() != (banned == 1))
+                            continue;
+
+                        int cell = cell(race, profession, banned);
+                        count += allLevels
+                                ? totals[cell]
+                                : prefixSum(levelTrees[cell], maxLevel) - prefixSum(levelTrees[cell], minLevel - 1);
+                    }
+                }
+            }
+
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void rebuild(Iterable<Player> players) {
+        lock.writeLock().lock();
+        try {
+            keys.clear();
+            incompleteIds.clear();
+            Arrays.fill(totals, 0);
+            for (long[] tree : levelTrees)
+                Arrays.fill(tree, 0);
+
+            for (Player player : players)
+                put(player);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onSave(Player player) {
+        lock.writeLock().lock();
+        try {
+            remove(player.getId());
+            put(player);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDelete(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Player player) {
+        if (player.getRace() == null || player.getProfession() == null || player.getBanned() == null
+                || player.getExperience() == null || player.getLevel() == null) {
+            incompleteIds.add(player.getId());
+            return;
+        }
+
+        int cell = cell(player.getRace().ordinal(), player.getProfession().ordinal(),
+                Boolean.TRUE.equals(player.getBanned()) ? 1 : 0);
+        int key = cell * LEVELS + player.getLevel();
+
+        keys.put(player.getId(), key);
+        add(key, 1);
+    }
+
+    private void remove(Long id) {
+        incompleteIds.remove(id);
+        Integer key = keys.remove(id);
+        if (key != null)
+            add(key, -1);
+    }
+
+    private void add(int key, int delta) {
+        int cell = key / LEVELS;
+        totals[cell] += delta;
+
+        long[] tree = levelTrees[cell];
+        for (int i = key % LEVELS + 1; i < tree.length; i += i & -i)
+            tree[i] += delta;
+    }
+
+    /**
+     * @return the number of players of the cell with a level up to {@code level}
+     */
+    private static long prefixSum(long[] tree, int level) {
+        long sum = 0;
+        for (int i = level + 1; i > 0; i -= i & -i)
+            sum += tree[i];
+
+        return sum;
+    }
+
+    private static int cell(int race, int profession, int banned) {
+        return (race * PROFESSIONS + profession) * 2 + banned;
+    }
+}
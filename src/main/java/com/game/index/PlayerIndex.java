@@ -0,0 +1,16 @@
+package com.game.index;
+
+import com.game.entity.Player;
+
+/**
+ * In-memory structure derived from the player table. Implementations are kept in sync by
+ * {@link PlayerIndexes}, which feeds them the saved or deleted rows after each service write.
+ */
+public interface PlayerIndex {
+
+    void rebuild(Iterable<Player> players);
+
+    void onSave(Player player);
+
+    void onDelete(Long id);
+}
@@ -0,0 +1,176 @@
+package com.game.index;
+
+import com.game.entity.Player;
+import com.game.repository.PlayerRepository;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps every {@link PlayerIndex} in step with the player table.
+ * <p>
+ * Writes through this instance reach the indexes after they commit. Writes by anything else, such as
+ * {@code PlayerImportTool} or a second application instance, are only visible in {@code player_version},
+ * which every write increments: when it no longer matches the rebuilt version plus the writes made here,
+ * {@link #refreshIfStale()} reloads the indexes. Until then {@link #isCurrent()} tells readers to ask the database.
+ * <p>
+ * That one row is updated by every committing write of every instance, so concurrent writes queue on its lock
+ * for the length of their commit. It is incremented as late as possible to keep that short.
+ */
+@Component
+public class PlayerIndexes implements InitializingBean {
+
+    // bound to a transaction once it has changed a player, so that it increments player_version only once
+    private static final Object VERSION_INCREMENTED = new Object();
+
+    private PlayerRepository playerRepository;
+    private EntityManagerFactory entityManagerFactory;
+    private List<PlayerIndex> indexes;
+
+    // guarded by this
+    private long rebuiltVersion;
+    private long changesSinceRebuild;
+    private long checkedVersion;
+    private boolean mismatchSeen;
+
+    @Autowired
+    public PlayerIndexes(PlayerRepository playerRepository, EntityManagerFactory entityManagerFactory, List<PlayerIndex> indexes) {
+        this.playerRepository = playerRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.indexes = indexes;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    /**
+     * Reloads every index, and the cached players they are served with, from the table. Needed at startup and
+     * whenever the table was changed by another process, which {@link #refreshIfStale()} detects.
+     */
+    public synchronized void rebuild() {
+        // read before the rows, so a change committed in between shows up as a mismatch later instead of being missed
+        long version = playerRepository.findVersion();
+        evictCachedPlayers();
+        // PlayerImportTool keeps no indexes and must not load the table
+        List<Player> players = indexes.isEmpty() ? Collections.<Player>emptyList() : playerRepository.findAll();
+
+        for (PlayerIndex index : indexes)
+            index.rebuild(players);
+
+        rebuiltVersion = version;
+        changesSinceRebuild = 0;
+        checkedVersion = version;
+        mismatchSeen = false;
+    }
+
+    /**
+     * Answers from the version read by the last {@link #refreshIfStale()}, without a query, so that it can be
+     * asked on every request. Readers of an index fall back to the database while it is false.
+     *
+     * @return false from the first check that sees a change of another process until the rebuild after the
+     * second one. A change of this instance that has committed but not reached the indexes yet also makes it
+     * false for a moment.
+     */
+    public synchronized boolean isCurrent() {
+        return checkedVersion <= rebuiltVersion + changesSinceRebuild;
+    }
+
+    /**
+     * Rebuilds the indexes if another process changed the table. Only a mismatch seen on two checks in a row
+     * counts, since a change of this instance looks the same between its commit and its index update; the first
+     * one only evicts the cached players and makes {@link #isCurrent()} false.
+     */
+    @Scheduled(fixedDelayString = "${index.refreshInterval}", initialDelayString = "${index.refreshInterval}")
+    public void refreshIfStale() {
+        long version = playerRepository.findVersion();
+        synchronized (this) {
+            checkedVersion = version;
+            if (version == rebuiltVersion + changesSinceRebuild)
+                mismatchSeen = false;
+            else if (mismatchSeen)
+                rebuild();
+            else {
+                mismatchSeen = true;
+                // the database fallbacks used until the rebuild must not be answered from the caches either
+                evictCachedPlayers();
+            }
+        }
+    }
+
+    /**
+     * The second-level cache has not seen the other process's writes either: GET /rest/players/{id} would serve
+     * the old entity, and the JSON cache would keep it until that player is written here again.
+     */
+    private void evictCachedPlayers() {
+        entityManagerFactory.getCache().evict(Player.class);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    public void onSave(Player player) {
+        afterCommit(() -> {
+            for (PlayerIndex index : indexes)
+                index.onSave(player);
+        });
+    }
+
+    public void onDelete(Long id) {
+        afterCommit(() -> {
+            for (PlayerIndex index : indexes)
+                index.onDelete(id);
+        });
+    }
+
+    /**
+     * Inside a transaction the indexes only change once it commits, so a rollback leaves them untouched.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            playerRepository.incrementVersion();
+            synchronized (this) {
+                action.run();
+                changesSinceRebuild++;
+            }
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.hasResource(VERSION_INCREMENTED)) {
+            TransactionSynchronizationManager.bindResource(VERSION_INCREMENTED, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // as late as possible, since the row stays locked until the commit
+                    playerRepository.incrementVersion();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(VERSION_INCREMENTED);
+                    if (status == STATUS_COMMITTED) {
+                        synchronized (PlayerIndexes.this) {
+                            changesSinceRebuild++;
+                        }
+                    }
+                }
+            });
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                synchronized (PlayerIndexes.this) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
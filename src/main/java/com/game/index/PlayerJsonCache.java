@@ -0,0 +1,120 @@
+package com.game.index;
+
+import com.game.entity.Player;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serialized JSON of single players for {@code GET /rest/players/{id}}, written to the response as is.
+ * <p>
+ * Entries live in a Caffeine cache bounded to {@code cache.json.maximumSize} players, which evicts the ones
+ * requested least often and recently. A load first puts a placeholder with a new version under the id and only
+ * replaces that exact version with the result, so a save or delete that removes the entry while a load is
+ * running also discards what that load read.
+ */
+@Component
+public class PlayerJsonCache implements PlayerIndex {
+
+    private final AtomicLong versions = new AtomicLong();
+    // placeholders weigh nothing, so loads in flight never push cached JSON out
+    private final ConcurrentMap<Long, CachedJson> entries;
+
+    @Autowired
+    public PlayerJsonCache(@Value("${cache.json.maximumSize}") int maximumSize) {
+        this(maximumSize, ForkJoinPool.commonPool());
+    }
+
+    // package-private for PlayerJsonCacheTest, which evicts on the calling thread
+    PlayerJsonCache(int maximumSize, Executor maintenanceExecutor) {
+        Cache<Long, CachedJson> cache = Caffeine.newBuilder()
+                .executor(maintenanceExecutor)
+                .maximumWeight(maximumSize)
+                .<Long, CachedJson>weigher((id, cached) -> cached.json == null ? 0 : 1)
+                .build();
+        this.entries = cache.asMap();
+    }
+
+    /**
+     * @param loader reads and serializes the player; exceptions are passed on and nothing is cached
+     */
+    public CachedJson getOrLoad(Long id, JsonLoader loader) throws IOException {
+        CachedJson cached = entries.get(id);
+        if (cached != null && cached.json != null)
+            return cached;
+
+        CachedJson placeholder = null;
+        if (cached == null) {
+            placeholder = new CachedJson(versions.incrementAndGet(), null);
+            if (entries.putIfAbsent(id, placeholder) != null)
+                placeholder = null;
+        }
+
+        boolean stored = false;
+        try {
+            CachedJson loaded = new CachedJson(placeholder == null ? 0 : placeholder.version, loader.load(id));
+            stored = placeholder != null && entries.replace(id, placeholder, loaded);
+            return loaded;
+        } finally {
+            if (placeholder != null && !stored)
+                entries.remove(id, placeholder);
+        }
+    }
+
+    @Override
+    public void rebuild(Iterable<Player> players) {
+        entries.clear();
+    }
+
+    @Override
+    public void onSave(Player player) {
+        invalidate(player.getId());
+    }
+
+    @Override
+    public void onDelete(Long id) {
+        invalidate(id);
+    }
+
+    private void invalidate(Long id) {
+        entries.remove(id);
+    }
+
+    public interface JsonLoader {
+        byte[] load(Long id) throws IOException;
+    }
+
+    public static class CachedJson {
+        private final long version;
+        private final byte[] json;
+        private final String eTag;
+
+        CachedJson(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+            // derived from the content, so it stays valid across restarts, unlike the version
+            this.eTag = json == null ? null : "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+    }
+}
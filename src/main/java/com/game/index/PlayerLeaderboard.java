@@ -0,0 +1,269 @@
+package com.game.index;
+
+import com.game.entity.Player;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Players ordered by experience, most first, with ties broken by id. Backs {@code GET /rest/players/{id}/rank}
+ * and {@code GET /rest/leaderboard}.
+ * <p>
+ * The order is kept in a treap whose nodes also count the size of their subtree. The rank of a player and the
+ * player at a rank are both found on one path from the root, in O(log n) expected time.
+ * <p>
+ * Players written by another process, such as {@code PlayerImportTool}, only get a rank once
+ * {@link PlayerIndexes#refreshIfStale()} has rebuilt the board, within two {@code index.refreshInterval}.
+ * Players with a NULL experience are not ranked, as in the database fallback of {@code PlayerService.rank}.
+ */
+@Component
+public class PlayerLeaderboard implements PlayerIndex {
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final Random priorities = new Random();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+
+    /**
+     * @return the player's entry, or null if there is no player with this id
+     */
+    public LeaderboardEntry rank(Long id) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            return node == null ? null : entry(node, countBefore(node) + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return up to {@code limit} entries starting at rank {@code firstRank}
+     */
+    public List<LeaderboardEntry> range(long firstRank, int limit) {
+        lock.readLock().lock();
+        try {
+            return entries(firstRank, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return {@code limit} entries with the player as close to the middle as the ends of the board allow, or null
+     * if there is no player with this id
+     */
+    public List<LeaderboardEntry> around(Long id, int limit) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            if (node == null)
+                return null;
+
+            long rank = countBefore(node) + 1;
+            long firstRank = Math.max(1, Math.min(rank - limit / 2, size(root) - limit + 1));
+
+            return entries(firstRank, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void rebuild(Iterable<Player> players) {
+        lock.writeLock().lock();
+        try {
+            nodes.clear();
+            root = null;
+            for (Player player : players)
+                insert(player);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onSave(Player player) {
+        lock.writeLock().lock();
+        try {
+            remove(player.getId());
+            insert(player);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDelete(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(Player player) {
+        if (player.getExperience() == null)
+            return;
+
+        Node node = new Node(player.getId(), player.getName(), player.getExperience(), player.getLevel(), priorities.nextInt());
+        nodes.put(node.id, node);
+
+        Node[] parts = split(root, node);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    private void remove(Long id) {
+        Node node = nodes.remove(id);
+        if (node != null)
+            root = remove(root, node);
+    }
+
+    private List<LeaderboardEntry> entries(long firstRank, int limit) {
+        List<LeaderboardEntry> entries = new ArrayList<>(limit);
+        for (long rank = Math.max(1, firstRank); rank <= size(root) && entries.size() < limit; rank++)
+            entries.add(entry(select(rank), rank));
+
+        return entries;
+    }
+
+    private static Node remove(Node tree, Node node) {
+        if (tree == node)
+            return merge(tree.left, tree.right);
+
+        if (before(node, tree))
+            tree.left = remove(tree.left, node);
+        else
+            tree.right = remove(tree.right, node);
+        tree.update();
+
+        return tree;
+    }
+
+    /**
+     * @return the nodes of {@code tree} ordered before {@code key}, and the rest
+     */
+    private static Node[] split(Node tree, Node key) {
+        if (tree == null)
+            return new Node[2];
+
+        Node[] parts;
+        if (before(tree, key)) {
+            parts = split(tree.right, key);
+            tree.right = parts[0];
+            parts[0] = tree;
+        } else {
+            parts = split(tree.left, key);
+            tree.left = parts[1];
+            parts[1] = tree;
+        }
+        tree.update();
+
+        return parts;
+    }
+
+    /**
+     * Joins two treaps where every node of {@code left} is ordered before every node of {@code right}.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private long countBefore(Node node) {
+        long count = 0;
+        Node tree = root;
+        while (tree != node) {
+            if (before(tree, node)) {
+                count += size(tree.left) + 1;
+                tree = tree.right;
+            } else {
+                tree = tree.left;
+            }
+        }
+
+        return count + size(node.left);
+    }
+
+    private Node select(long rank) {
+        Node tree = root;
+        long index = rank - 1;
+        while (true) {
+            long leftSize = size(tree.left);
+            if (index < leftSize) {
+                tree = tree.left;
+            } else if (index == leftSize) {
+                return tree;
+            } else {
+                index -= leftSize + 1;
+                tree = tree.right;
+            }
+        }
+    }
+
+    private static boolean before(Node node, Node other) {
+        if (node.experience != other.experience)
+            return node.experience > other.experience;
+
+        return node.id < other.id;
+    }
+
+    private static long size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static LeaderboardEntry entry(Node node, long rank) {
+        return new LeaderboardEntry(rank, node.id, node.name, node.experience, node.level);
+    }
+
+    private static final class Node {
+        final long id;
+        final String name;
+        final int experience;
+        final Integer level;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long id, String name, int experience, Integer level, int priority) {
+            this.id = id;
+            this.name = name;
+            this.experience = experience;
+            this.level = level;
+            this.priority = priority;
+        }
+
+        void update() {
+            size = 1 + (left == null ? 0 : left.size) + (right == null ? 0 : right.size);
+        }
+    }
+}
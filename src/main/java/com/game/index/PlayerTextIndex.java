@@ -0,0 +1,191 @@
+package com.game.index;
+
+import com.game.entity.Player;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * N-gram index over {@link Player#getName()} and {@link Player#getTitle()} for the substring filters.
+ * <p>
+ * Every value is indexed by all of its case- and accent-folded substrings of length 1 to 3, so a query of up to
+ * three characters is a single posting lookup and a longer one is the intersection of its trigrams.
+ * The result is a superset of the rows the SQL {@code LIKE} matches, which still runs on the candidates, as
+ * long as the index has seen every write; {@link PlayerIndexes#isCurrent()} tells whether it has.
+ */
+@Component
+public class PlayerTextIndex implements PlayerIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    /**
+     * Above this many candidates an id list stops being cheaper than the plain scan.
+     */
+    static final int MAX_CANDIDATES = 1000;
+
+    private final NgramIndex names = new NgramIndex();
+    private final NgramIndex titles = new NgramIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @return ids of all players whose name may contain {@code query}, or null if the index
+     * cannot narrow the search (wildcards in the query or too many candidates)
+     */
+    public Set<Long> nameCandidates(String query) {
+        lock.readLock().lock();
+        try {
+            return names.candidates(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @see #nameCandidates(String)
+     */
+    public Set<Long> titleCandidates(String query) {
+        lock.readLock().lock();
+        try {
+            return titles.candidates(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void rebuild(Iterable<Player> players) {
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            titles.clear();
+            for (Player player : players) {
+                names.put(player.getId(), player.getName());
+                titles.put(player.getId(), player.getTitle());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onSave(Player player) {
+        lock.writeLock().lock();
+        try {
+            names.put(player.getId(), player.getName());
+            titles.put(player.getId(), player.getTitle());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDelete(Long id) {
+        lock.writeLock().lock();
+        try {
+            names.remove(id);
+            titles.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static class NgramIndex {
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+        private final Map<Long, String> values = new HashMap<>();
+
+        void clear() {
+            postings.clear();
+            values.clear();
+        }
+
+        void put(Long id, String value) {
+            remove(id);
+            if (value == null)
+                return;
+
+            String normalized = normalize(value);
+            values.put(id, normalized);
+            for (String gram : grams(normalized))
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+
+        void remove(Long id) {
+            String old = values.remove(id);
+            if (old == null)
+                return;
+
+            for (String gram : grams(old)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null && ids.remove(id) && ids.isEmpty())
+                    postings.remove(gram);
+            }
+        }
+
+        Set<Long> candidates(String query) {
+            // LIKE wildcards and escapes cannot be answered from substrings
+            if (query.isEmpty() || query.indexOf('%') >= 0 || query.indexOf('_') >= 0 || query.indexOf('\\') >= 0)
+                return null;
+
+            String normalized = normalize(query);
+            if (normalized.length() <= GRAM_LENGTH)
+                return limit(postings.getOrDefault(normalized, Collections.emptySet()));
+
+            Set<Long> result = null;
+            for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+                Set<Long> ids = postings.get(normalized.substring(i, i + GRAM_LENGTH));
+                if (ids == null)
+                    return Collections.emptySet();
+
+                if (result == null) {
+                    result = new HashSet<>(ids);
+                } else {
+                    result.retainAll(ids);
+                    if (result.isEmpty())
+                        return result;
+                }
+            }
+
+            return limit(result);
+        }
+
+        private static Set<Long> limit(Set<Long> ids) {
+            return ids.size() > MAX_CANDIDATES ? null : new HashSet<>(ids);
+        }
+
+        private static String normalize(String value) {
+            // folds case and accents like the utf8_general_ci collation of the MySQL table (é = e, ß = s), one
+            // character per character so substrings stay substrings; a superset for the case-sensitive H2
+            String decomposed = Normalizer.normalize(value.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+            StringBuilder folded = new StringBuilder(value.length());
+            for (int i = 0; i < decomposed.length(); i++) {
+                char c = decomposed.charAt(i);
+                if (Character.getType(c) == Character.NON_SPACING_MARK)
+                    continue;
+                if (c == '\u00df')
+                    c = 's';
+                else if (c == '\u0131')
+                    c = 'i';
+                folded.append(c);
+            }
+
+            return folded.toString();
+        }
+
+        private static Set<String> grams(String value) {
+            Set<String> grams = new HashSet<>();
+            for (int length = 1; length <= GRAM_LENGTH; length++)
+                for (int i = 0; i + length <= value.length(); i++)
+                    grams.add(value.substring(i, i + length));
+
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.game.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram with log-linear buckets in the style of HdrHistogram.
+ * <p>
+ * Values below 128 get a bucket each; above that every power of two is split into 64 buckets,
+ * so a reported percentile is within about 1.6% of the recorded value, from nanoseconds to hours,
+ * at a fixed cost of one array of counters.
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 128;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS * (64 - SUB_BUCKET_BITS);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.999 for p999
+     * @return the middle of the bucket holding the quantile, never more than the largest recorded value
+     */
+    public long valueAtQuantile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return Math.min(middle(i), getMax());
+        }
+
+        return getMax();
+    }
+
+    static int bucket(long value) {
+        if (value < LINEAR_BUCKETS)
+            return (int) value;
+
+        // value >>> shift keeps the top SUB_BUCKET_BITS + 1 bits, between 64 and 127
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS * (shift + 1) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < LINEAR_BUCKETS)
+            return bucket;
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+
+    private static long middle(int bucket) {
+        if (bucket < LINEAR_BUCKETS)
+            return bucket;
+
+        long lower = lowerBound(bucket);
+        long width = 1L << (bucket / SUB_BUCKETS - 1);
+        return lower + width / 2;
+    }
+}
@@ -0,0 +1,29 @@
+package com.game.metrics;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+
+/**
+ * Attaches a {@link SqlMetricsListener} to the session of every transaction the JPA transaction manager begins.
+ * All repository access runs in such a transaction, so every statement is seen.
+ */
+public class MetricsJpaDialect extends HibernateJpaDialect {
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsJpaDialect(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition) throws SQLException {
+        entityManager.unwrap(SessionImplementor.class).getEventListenerManager()
+                .addListener(new SqlMetricsListener(metricsRegistry));
+
+        return super.beginTransaction(entityManager, definition);
+    }
+}
@@ -0,0 +1,145 @@
+package com.game.metrics;
+
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency histograms for REST routes, repository methods, SQL execution and connection pool waits,
+ * written in the Prometheus text format on {@code GET /rest/metrics}.
+ * <p>
+ * SQL statements are counted per request through a counter bound to the request thread and carried
+ * over to the executor thread that does the database work (see {@link #propagateStatementCounter()}).
+ */
+@Component
+public class MetricsRegistry {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final ConcurrentMap<String, LatencyHistogram> routes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> statementsPerRoute = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> repositoryMethods = new ConcurrentHashMap<>();
+    private final LatencyHistogram sqlExecution = new LatencyHistogram();
+    private final LatencyHistogram poolWait = new LatencyHistogram();
+    private volatile PoolStats poolStats;
+
+    private final ThreadLocal<AtomicInteger> statementCounter = new ThreadLocal<>();
+
+    /**
+     * Starts counting SQL statements for the request handled by the current thread.
+     */
+    public AtomicInteger startStatementCounter() {
+        AtomicInteger counter = new AtomicInteger();
+        statementCounter.set(counter);
+        return counter;
+    }
+
+    public void clearStatementCounter() {
+        statementCounter.remove();
+    }
+
+    /**
+     * Makes tasks handed to an executor count their statements for the request that submitted them.
+     */
+    public TaskDecorator propagateStatementCounter() {
+        return task -> {
+            AtomicInteger counter = statementCounter.get();
+            return () -> {
+                AtomicInteger previous = statementCounter.get();
+                statementCounter.set(counter);
+                try {
+                    task.run();
+                } finally {
+                    statementCounter.set(previous);
+                }
+            };
+        };
+    }
+
+    public void recordStatement() {
+        AtomicInteger counter = statementCounter.get();
+        if (counter != null)
+            counter.incrementAndGet();
+    }
+
+    public void recordRequest(String route, long nanos, int statements) {
+        routes.computeIfAbsent(route, key -> new LatencyHistogram()).record(nanos);
+        statementsPerRoute.computeIfAbsent(route, key -> new LatencyHistogram()).record(statements);
+    }
+
+    public void recordRepositoryCall(String method, long nanos) {
+        repositoryMethods.computeIfAbsent(method, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    public void recordSqlExecution(long nanos) {
+        sqlExecution.record(nanos);
+    }
+
+    public void recordPoolWait(long nanos) {
+        poolWait.record(nanos);
+    }
+
+    public void setPoolStats(PoolStats poolStats) {
+        this.poolStats = poolStats;
+    }
+
+    public void write(Writer writer) throws IOException {
+        writeSummaries(writer, "player_http_request_seconds", "Time to answer a REST request", "route", routes, true);
+        writeSummaries(writer, "player_http_request_sql_statements", "SQL statements sent for one REST request", "route", statementsPerRoute, false);
+        writeSummaries(writer, "player_repository_call_seconds", "Time spent in a repository method", "method", repositoryMethods, true);
+
+        writeHeader(writer, "player_sql_execution_seconds", "Time to execute one SQL statement or batch", "summary");
+        writeSummary(writer, "player_sql_execution_seconds", "", sqlExecution, true);
+
+        writeHeader(writer, "player_jdbc_pool_wait_seconds", "Time waited for a pooled JDBC connection", "summary");
+        writeSummary(writer, "player_jdbc_pool_wait_seconds", "", poolWait, true);
+
+        PoolStats stats = poolStats;
+        if (stats != null) {
+            writeHeader(writer, "player_jdbc_pool_connections", "Pooled JDBC connections by state", "gauge");
+            writer.write("player_jdbc_pool_connections{state=\"active\"} " + stats.getActiveConnections() + "\n");
+            writer.write("player_jdbc_pool_connections{state=\"idle\"} " + stats.getIdleConnections() + "\n");
+            writer.write("player_jdbc_pool_connections{state=\"pending\"} " + stats.getPendingThreads() + "\n");
+        }
+    }
+
+    private void writeSummaries(Writer writer, String name, String help, String label,
+                                Map<String, LatencyHistogram> histograms, boolean nanos) throws IOException {
+        writeHeader(writer, name, help, "summary");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet())
+            writeSummary(writer, name, label + "=\"" + escape(entry.getKey()) + "\"", entry.getValue(), nanos);
+    }
+
+    private void writeHeader(Writer writer, String name, String help, String type) throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private void writeSummary(Writer writer, String name, String labels, LatencyHistogram histogram, boolean nanos) throws IOException {
+        String separator = labels.isEmpty() ? "" : ",";
+        for (double quantile : QUANTILES) {
+            writer.write(name + "{" + labels + separator + "quantile=\"" + quantile + "\"} "
+                    + value(histogram.valueAtQuantile(quantile), nanos) + "\n");
+        }
+        String suffix = labels.isEmpty() ? "" : "{" + labels + "}";
+        writer.write(name + "_sum" + suffix + " " + value(histogram.getSum(), nanos) + "\n");
+        writer.write(name + "_count" + suffix + " " + histogram.getCount() + "\n");
+    }
+
+    private static String value(long value, boolean nanos) {
+        return nanos ? Double.toString(value / NANOS_PER_SECOND) : Long.toString(value);
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,46 @@
+package com.game.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every call on a Spring Data repository, e.g. {@code playerRepository.findById}.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final MetricsRegistry metricsRegistry;
+
+    public RepositoryMetricsPostProcessor(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Repository))
+            return bean;
+
+        MethodInterceptor timer = invocation -> {
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                metricsRegistry.recordRepositoryCall(beanName + "." + invocation.getMethod().getName(), System.nanoTime() - start);
+            }
+        };
+
+        // repositories are already proxies; timing first also covers their transaction interceptor
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, timer);
+            return bean;
+        }
+
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(timer);
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,54 @@
+package com.game.metrics;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the latency and SQL statement count of every REST request under its route pattern,
+ * e.g. {@code GET /rest/players/{id}}. An asynchronous request passes through here twice, once per
+ * dispatch; the start time and statement counter of the first dispatch are kept on the request.
+ */
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START = RequestMetricsInterceptor.class.getName() + ".start";
+    private static final String STATEMENTS = RequestMetricsInterceptor.class.getName() + ".statements";
+
+    private final MetricsRegistry metricsRegistry;
+
+    public RequestMetricsInterceptor(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(START) == null) {
+            request.setAttribute(START, System.nanoTime());
+            request.setAttribute(STATEMENTS, metricsRegistry.startStatementCounter());
+        }
+
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the executor thread took the counter along; this container thread goes back to the pool
+        metricsRegistry.clearStatementCounter();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        metricsRegistry.clearStatementCounter();
+
+        Long start = (Long) request.getAttribute(START);
+        AtomicInteger statements = (AtomicInteger) request.getAttribute(STATEMENTS);
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (start == null || pattern == null)
+            return;
+
+        metricsRegistry.recordRequest(request.getMethod() + " " + pattern, System.nanoTime() - start, statements.get());
+    }
+}
@@ -0,0 +1,42 @@
+package com.game.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Counts and times the JDBC work of one Hibernate session.
+ */
+class SqlMetricsListener extends BaseSessionEventListener {
+
+    private final MetricsRegistry metricsRegistry;
+    private long executionStart;
+    private long batchStart;
+
+    SqlMetricsListener(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        metricsRegistry.recordStatement();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        metricsRegistry.recordSqlExecution(System.nanoTime() - executionStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        metricsRegistry.recordSqlExecution(System.nanoTime() - batchStart);
+    }
+}
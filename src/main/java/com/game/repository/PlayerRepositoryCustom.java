@@ -0,0 +1,63 @@
+package com.game.repository;
+
+import com.game.entity.Player;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface PlayerRepositoryCustom {
+
+    /**
+     * Like {@code findAll(Specification, Pageable)}, but reads pageSize + 1 rows to detect the next page
+     * instead of issuing a separate count query.
+     */
+    Slice<Player> findSlice(Specification<Player> specification, Pageable pageable);
+
+    /**
+     * Like {@link #findSlice}, but selects only the given attributes of {@link Player}. Each row is a map from
+     * attribute name to value in the order of {@code fields}; no entities are loaded into the persistence context.
+     */
+    Slice<Map<String, Object>> findFieldsSlice(Specification<Player> specification, Pageable pageable, List<String> fields);
+
+    /**
+     * Replaces {@code JpaSpecificationExecutor.count} so that counts go through the query cache.
+     */
+    long count(Specification<Player> specification);
+
+    /**
+     * Persists new players in JDBC batches of {@code db.jdbc.batchSize}, flushing and clearing the
+     * persistence context after each batch so that memory does not grow with the number of players.
+     */
+    void insertAll(List<Player> players);
+
+    /**
+     * Reads matching players through a forward-only cursor of {@code db.jdbc.fetchSize} rows. Players are
+     * detached as they are read and bypass the second-level cache. Must be consumed, and closed, inside a transaction.
+     */
+    Stream<Player> streamAll(Specification<Player> specification, Sort sort);
+
+    /**
+     * Deletes the player with a single {@code delete ... where id = ?}, without loading it first. Once the
+     * transaction commits only this id is evicted from the second-level cache, along with the cached queries on
+     * the player table.
+     *
+     * @return the number of deleted rows, 0 if there is no player with this id
+     */
+    int deletePlayer(Long id);
+
+    /**
+     * Counts a change to the player table in {@code player_version}. Runs in the caller's transaction, so the
+     * count only moves if the change commits.
+     */
+    void incrementVersion();
+
+    /**
+     * @return the number of changes counted by {@link #incrementVersion()} so far
+     */
+    long findVersion();
+}
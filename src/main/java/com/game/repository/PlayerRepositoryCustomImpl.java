@@ -0,0 +1,201 @@
+package com.game.repository;
+
+import com.game.entity.Player;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.hibernate.CacheMode;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+@Transactional(readOnly = true)
+public class PlayerRepositoryCustomImpl implements PlayerRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${db.jdbc.batchSize}")
+    private int batchSize;
+
+    @Value("${db.jdbc.fetchSize}")
+    private int fetchSize;
+
+    @Override
+    public Slice<Player> findSlice(Specification<Player> specification, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Player> query = criteriaBuilder.createQuery(Player.class);
+        Root<Player> root = query.from(Player.class);
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null)
+            query.where(predicate);
+        query.orderBy(toOrders(pageable.getSort(), root, criteriaBuilder));
+
+        return slice(entityManager.createQuery(query), pageable);
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findFieldsSlice(Specification<Player> specification, Pageable pageable, List<String> fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Player> root = query.from(Player.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields)
+            selections.add(root.get(field).alias(field));
+        query.multiselect(selections);
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null)
+            query.where(predicate);
+        query.orderBy(toOrders(pageable.getSort(), root, criteriaBuilder));
+
+        Slice<Tuple> tuples = slice(entityManager.createQuery(query), pageable);
+
+        List<Map<String, Object>> content = new ArrayList<>(tuples.getNumberOfElements());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields)
+                row.put(field, tuple.get(field));
+            content.add(row);
+        }
+
+        return new SliceImpl<>(content, pageable, tuples.hasNext());
+    }
+
+    private <T> Slice<T> slice(TypedQuery<T> typedQuery, Pageable pageable) {
+        typedQuery.setHint(QueryHints.HINT_CACHEABLE, true);
+        if (pageable.isUnpaged())
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize() + 1);
+
+        List<T> content = typedQuery.getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public long count(Specification<Player> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Player> root = query.from(Player.class);
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null)
+            query.where(predicate);
+        query.select(criteriaBuilder.count(root));
+
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .getSingleResult();
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(List<Player> players) {
+        for (int i = 0; i < players.size(); i++) {
+            entityManager.persist(players.get(i));
+
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    @Transactional
+    public void incrementVersion() {
+        // without a query space Hibernate would treat the native update as touching every table and clear the
+        // whole second-level cache
+        entityManager.createNativeQuery("update player_version set version = version + 1 where id = 1")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("player_version")
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int deletePlayer(Long id) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        TimestampsCache timestamps = session.getFactory().getCache().getTimestampsCache();
+        String[] spaces = {"player"};
+
+        // the same as an entity delete does: cached queries on player go stale now and again once the
+        // transaction ends. Synchronizing the native delete on "player" itself would make Hibernate clear
+        // the whole player region instead of this one id.
+        if (timestamps != null)
+            timestamps.preInvalidate(spaces, session);
+
+        int deleted = entityManager.createNativeQuery("delete from player where id = ?1")
+                .setParameter(1, id)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("player_row")
+                .executeUpdate();
+
+        session.getActionQueue().registerProcess((success, completedSession) -> {
+            if (timestamps != null)
+                timestamps.invalidate(spaces, completedSession);
+            if (success && deleted > 0)
+                completedSession.getFactory().getCache().evict(Player.class, id);
+        });
+
+        return deleted;
+    }
+
+    @Override
+    public long findVersion() {
+        return ((Number) entityManager.createNativeQuery("select version from player_version where id = 1")
+                .getSingleResult()).longValue();
+    }
+
+    @Override
+    public Stream<Player> streamAll(Specification<Player> specification, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Player> query = criteriaBuilder.createQuery(Player.class);
+        Root<Player> root = query.from(Player.class);
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null)
+            query.where(predicate);
+        query.orderBy(toOrders(sort, root, criteriaBuilder));
+
+        Stream<Player> players = entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .setHint(QueryHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream();
+
+        // without detaching, the persistence context would end up holding every exported player
+        return players.peek(entityManager::detach);
+    }
+}
\ No newline at end of file
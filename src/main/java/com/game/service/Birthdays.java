@@ -0,0 +1,22 @@
+package com.game.service;
+
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Birthdays as the DATE column of the player table stores them.
+ */
+public final class Birthdays {
+
+    private Birthdays() {
+    }
+
+    /**
+     * @return the start of the day of {@code birthday} in the default time zone, which is the day the JDBC
+     * driver writes to the DATE column
+     */
+    public static Date startOfDay(Date birthday) {
+        return Date.from(birthday.toInstant().atZone(ZoneId.systemDefault()).toLocalDate()
+                .atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,44 @@
+package com.game.service;
+
+/**
+ * One item of a bulk experience update: either a new absolute {@code experience}
+ * or an {@code experienceDelta} added to the current value.
+ */
+public class ExperienceGrant {
+    private Long id;
+    private Integer experience;
+    private Integer experienceDelta;
+
+    public ExperienceGrant() {
+    }
+
+    public ExperienceGrant(Long id, Integer experience, Integer experienceDelta) {
+        this.id = id;
+        this.experience = experience;
+        this.experienceDelta = experienceDelta;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getExperience() {
+        return experience;
+    }
+
+    public void setExperience(Integer experience) {
+        this.experience = experience;
+    }
+
+    public Integer getExperienceDelta() {
+        return experienceDelta;
+    }
+
+    public void setExperienceDelta(Integer experienceDelta) {
+        this.experienceDelta = experienceDelta;
+    }
+}
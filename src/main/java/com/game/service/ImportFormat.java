@@ -0,0 +1,12 @@
+package com.game.service;
+
+public enum ImportFormat {
+    /**
+     * One JSON player object per line, as written by the NDJSON export.
+     */
+    NDJSON,
+    /**
+     * A header row naming the columns, as written by the CSV export; id, level and untilNextLevel are ignored.
+     */
+    CSV
+}
@@ -0,0 +1,75 @@
+package com.game.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running totals of an import, reported after every committed chunk. {@code rejectedLines}
+ * only lists the lines rejected since the previous report, so a report stays chunk-sized.
+ */
+public class ImportProgress {
+    private long lines;
+    private long created;
+    private long rejected;
+    private boolean done;
+    private final List<RejectedLine> rejectedLines = new ArrayList<>();
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public List<RejectedLine> getRejectedLines() {
+        return rejectedLines;
+    }
+
+    void setLines(long lines) {
+        this.lines = lines;
+    }
+
+    void addCreated() {
+        created++;
+    }
+
+    void addRejected(long line, String reason) {
+        rejected++;
+        rejectedLines.add(new RejectedLine(line, reason));
+    }
+
+    void clearRejectedLines() {
+        rejectedLines.clear();
+    }
+
+    void setDone() {
+        done = true;
+    }
+
+    public static class RejectedLine {
+        private final long line;
+        private final String reason;
+
+        RejectedLine(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.game.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Player level for an amount of experience, without floating point or boxing.
+ * <p>
+ * Level {@code n} starts at {@code 50 * n * (n + 1)} experience, the same rule as
+ * {@code (sqrt(2500 + 200 * exp) - 50) / 100}. Experience is capped at {@value #MAX_EXPERIENCE},
+ * so all thresholds fit in a small precomputed array.
+ */
+@Component
+public class LevelCalculator {
+
+    public static final int MAX_EXPERIENCE = 10_000_000;
+
+    // consecutive thresholds are at least 100 apart, so a bucket of 100 experience crosses at most one of them
+    private static final int BUCKET = 100;
+
+    // THRESHOLDS[n] is the experience at which level n starts; the last one is past MAX_EXPERIENCE
+    private static final int[] THRESHOLDS = thresholds();
+
+    public static final int MAX_LEVEL = THRESHOLDS.length - 2;
+
+    // BUCKET_LEVELS[b] is the level at experience b * BUCKET
+    private static final short[] BUCKET_LEVELS = bucketLevels();
+
+    private static int[] thresholds() {
+        int levels = 0;
+        while (threshold(levels) <= MAX_EXPERIENCE)
+            levels++;
+
+        int[] thresholds = new int[levels + 1];
+        for (int level = 0; level <= levels; level++)
+            thresholds[level] = threshold(level);
+
+        return thresholds;
+    }
+
+    private static int threshold(int level) {
+        return 50 * level * (level + 1);
+    }
+
+    private static short[] bucketLevels() {
+        short[] levels = new short[MAX_EXPERIENCE / BUCKET + 1];
+        int level = 0;
+        for (int bucket = 0; bucket < levels.length; bucket++) {
+            while (THRESHOLDS[level + 1] <= bucket * BUCKET)
+                level++;
+            levels[bucket] = (short) level;
+        }
+
+        return levels;
+    }
+
+    /**
+     * @param exp experience between 0 and {@value #MAX_EXPERIENCE}
+     */
+    public int level(int exp) {
+        if (exp < 0 || exp > MAX_EXPERIENCE)
+            throw new IllegalArgumentException("Experience out of range: " + exp);
+
+        int level = BUCKET_LEVELS[exp / BUCKET];
+
+        return THRESHOLDS[level + 1] <= exp ? level + 1 : level;
+    }
+
+    public int untilNextLevel(int level, int exp) {
+        return THRESHOLDS[level + 1] - exp;
+    }
+
+    /**
+     * @param level level between 0 and {@link #MAX_LEVEL} + 1
+     * @return the experience at which {@code level} starts
+     */
+    public int levelStart(int level) {
+        return THRESHOLDS[level];
+    }
+}
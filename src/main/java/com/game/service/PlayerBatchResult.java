@@ -0,0 +1,30 @@
+package com.game.service;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Outcome of one item of a batch request, reported with the status the single-item endpoint would return.
+ */
+public class PlayerBatchResult {
+    private final int index;
+    private final int status;
+    private final Long id;
+
+    public PlayerBatchResult(int index, HttpStatus status, Long id) {
+        this.index = index;
+        this.status = status.value();
+        this.id = id;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
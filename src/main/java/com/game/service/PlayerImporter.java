@@ -0,0 +1,276 @@
+package com.game.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.game.BadRequestException;
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Loads players from an NDJSON or CSV stream in chunks.
+ * <p>
+ * The input is read record by record and only one chunk is held in memory; each chunk is validated and
+ * committed through {@link PlayerService#createAll(List)} before the next line is read, so a client
+ * sending faster than the database can insert is held back by the stream itself.
+ */
+@Service
+public class PlayerImporter {
+
+    private PlayerService playerService;
+    private ObjectReader playerReader;
+    private int defaultChunkSize;
+
+    @Autowired
+    public PlayerImporter(PlayerService playerService, ObjectMapper objectMapper,
+                          @Value("${db.import.chunkSize:1000}") int defaultChunkSize) {
+        this.playerService = playerService;
+        this.playerReader = objectMapper.readerFor(Player.class);
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    /**
+     * @param chunkSize records read per committed transaction, or {@code null} for {@code db.import.chunkSize}
+     * @param listener receives a report after every committed chunk and a final one with {@code done} set;
+     *                 the report is reused between calls, so it has to be consumed before returning
+     */
+    public void importPlayers(Reader input, ImportFormat format, Integer chunkSize, Consumer<ImportProgress> listener) throws IOException {
+        if (chunkSize == null)
+            chunkSize = defaultChunkSize;
+        if (chunkSize < 1)
+            throw new BadRequestException();
+
+        RecordReader reader = new RecordReader(new BufferedReader(input), format == ImportFormat.CSV);
+        CsvColumns columns = null;
+        if (format == ImportFormat.CSV) {
+            String header = reader.next();
+            if (header == null)
+                throw new BadRequestException();
+            columns = new CsvColumns(header);
+        }
+
+        List<Player> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        ImportProgress progress = new ImportProgress();
+        // valid and malformed records since the last commit, so a run of bad input is reported per chunk too
+        int consumed = 0;
+
+        String record;
+        while ((record = reader.next()) != null) {
+            if (record.trim().isEmpty())
+                continue;
+
+            try {
+                if (reader.isTruncated())
+                    throw new IllegalArgumentException("Record too long");
+                chunk.add(columns == null ? playerReader.readValue(record) : columns.parse(record));
+                chunkLines.add(reader.getRecordLine());
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                progress.addRejected(reader.getRecordLine(), "malformed");
+            }
+
+            if (++consumed == chunkSize) {
+                commit(chunk, chunkLines, progress, reader.getLineNumber(), listener);
+                consumed = 0;
+            }
+        }
+
+        commit(chunk, chunkLines, progress, reader.getLineNumber(), listener);
+        progress.setDone();
+        listener.accept(progress);
+    }
+
+    private void commit(List<Player> chunk, List<Long> chunkLines, ImportProgress progress,
+                        long lineNumber, Consumer<ImportProgress> listener) {
+        List<PlayerBatchResult> results = playerService.createAll(chunk);
+        for (PlayerBatchResult result : results) {
+            if (result.getStatus() == HttpStatus.OK.value())
+                progress.addCreated();
+            else
+                progress.addRejected(chunkLines.get(result.getIndex()), "invalid");
+        }
+        progress.setLines(lineNumber);
+        chunk.clear();
+        chunkLines.clear();
+
+        if (results.isEmpty() && progress.getRejectedLines().isEmpty())
+            return;
+
+        listener.accept(progress);
+        progress.clearRejectedLines();
+    }
+
+    /**
+     * Reads NDJSON line by line. A CSV record ends at the first line break outside quotes, so quoted
+     * fields may contain line breaks, as written by the CSV export.
+     */
+    private static class RecordReader {
+        // longer records are consumed but not kept, so an unterminated quote cannot buffer the whole input
+        private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+        private final BufferedReader reader;
+        private final boolean csv;
+        private final StringBuilder record = new StringBuilder();
+        private long lineNumber;
+        private long recordLine;
+        private boolean truncated;
+
+        RecordReader(BufferedReader reader, boolean csv) {
+            this.reader = reader;
+            this.csv = csv;
+        }
+
+        /**
+         * @return the next record without its line break, or null at the end of the input
+         */
+        String next() throws IOException {
+            if (!csv) {
+                String line = reader.readLine();
+                if (line != null)
+                    recordLine = ++lineNumber;
+                return line;
+            }
+
+            int c = reader.read();
+            if (c < 0)
+                return null;
+
+            record.setLength(0);
+            truncated = false;
+            recordLine = ++lineNumber;
+            boolean quoted = false;
+            for (; c >= 0; c = reader.read()) {
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (!quoted && (c == '\n' || c == '\r')) {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n')
+                            reader.reset();
+                    }
+                    break;
+                } else if (c == '\n') {
+                    lineNumber++;
+                }
+
+                if (record.length() < MAX_RECORD_LENGTH)
+                    record.append((char) c);
+                else
+                    truncated = true;
+            }
+
+            return record.toString();
+        }
+
+        /**
+         * @return whether the last record was longer than {@link #MAX_RECORD_LENGTH} and got cut off
+         */
+        boolean isTruncated() {
+            return truncated;
+        }
+
+        long getRecordLine() {
+            return recordLine;
+        }
+
+        long getLineNumber() {
+            return lineNumber;
+        }
+    }
+
+    /**
+     * Maps CSV columns by the names in the header row. Quoted fields may contain commas, line breaks and
+     * doubled quotes.
+     */
+    private static class CsvColumns {
+        private int name = -1, title = -1, race = -1, profession = -1, birthday = -1, banned = -1, experience = -1;
+
+        CsvColumns(String header) {
+            List<String> names = split(header);
+            for (int i = 0; i < names.size(); i++) {
+                switch (names.get(i).trim()) {
+                    case "name": name = i; break;
+                    case "title": title = i; break;
+                    case "race": race = i; break;
+                    case "profession": profession = i; break;
+                    case "birthday": birthday = i; break;
+                    case "banned": banned = i; break;
+                    case "experience": experience = i; break;
+                    default: break;
+                }
+            }
+        }
+
+        Player parse(String line) {
+            List<String> values = split(line);
+
+            Player player = new Player();
+            player.setName(text(values, name));
+            player.setTitle(text(values, title));
+            String value = text(values, race);
+            player.setRace(value == null ? null : Race.valueOf(value));
+            value = text(values, profession);
+            player.setProfession(value == null ? null : Profession.valueOf(value));
+            value = text(values, birthday);
+            player.setBirthday(value == null ? null : new Date(Long.parseLong(value)));
+            value = text(values, banned);
+            player.setBanned(value == null ? null : Boolean.valueOf(value));
+            value = text(values, experience);
+            player.setExperience(value == null ? null : Integer.valueOf(value));
+
+            return player;
+        }
+
+        private static String text(List<String> values, int index) {
+            if (index < 0 || index >= values.size() || values.get(index).isEmpty())
+                return null;
+
+            return values.get(index);
+        }
+
+        private static List<String> split(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        value.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            if (quoted)
+                throw new IllegalArgumentException("Unterminated quoted field");
+
+            values.add(value.toString());
+            return values;
+        }
+    }
+}
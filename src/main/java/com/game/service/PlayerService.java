@@ -1,29 +1,50 @@
 package com.game.service;
 
 import com.game.entity.Player;
+import com.game.entity.PlayerOrder;
 import com.game.entity.Profession;
 import com.game.entity.Race;
-import org.springframework.data.domain.Page;
+import com.game.index.LeaderboardEntry;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface PlayerService {
     Player create(Player player);
 
-    List<Player> readAll(Specification<Player> specification);
+    List<PlayerBatchResult> createAll(List<Player> players);
 
-    Page<Player> readAll(Specification<Player> specification, Pageable sorted);
+    long count(Specification<Player> specification);
+
+    Slice<Player> readAll(Specification<Player> specification, Pageable sorted);
+
+    Slice<Map<String, Object>> readAll(Specification<Player> specification, Pageable sorted, List<String> fields);
+
+    void export(Specification<Player> specification, Sort sort, Consumer<Player> consumer);
 
     Player read(Long id);
 
     Player update(Player player, Long id);
 
+    List<PlayerBatchResult> grantExperience(List<ExperienceGrant> grants);
+
     void delete(Long id);
 
+    /**
+     * Database counterparts of {@code PlayerLeaderboard.rank}, {@code range(1, limit)} and {@code around}, for
+     * while the board may miss changes of another process. Like the board they return null for an unknown id.
+     */
+    LeaderboardEntry rank(Long id);
+
+    List<LeaderboardEntry> topRanks(int limit);
+
+    List<LeaderboardEntry> ranksAround(Long id, int limit);
+
     Long checkId(String id);
 
     Specification<Player> filterByName(String name);
@@ -42,4 +63,6 @@ public interface PlayerService {
 
     Specification<Player> filterByLevel(Integer minLevel, Integer maxLevel);
 
+    Specification<Player> filterByCursor(PlayerOrder order, String cursor);
+
 }
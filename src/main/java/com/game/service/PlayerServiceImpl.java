@@ -3,32 +3,113 @@ package com.game.service;
 import com.game.BadRequestException;
 import com.game.PlayerNotFoundException;
 import com.game.entity.Player;
+import com.game.entity.PlayerOrder;
 import com.game.entity.Profession;
 import com.game.entity.Race;
+import com.game.index.LeaderboardEntry;
+import com.game.index.PlayerIndexes;
+import com.game.index.PlayerTextIndex;
 import com.game.repository.PlayerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PlayerServiceImpl implements PlayerService {
 
+    // birthdays from 2000 to 3000 inclusive, in the default time zone like the Calendar years checked before
+    private static final long MIN_BIRTHDAY = startOfYear(2000);
+    private static final long MAX_BIRTHDAY_EXCLUSIVE = startOfYear(3001);
+
+    // attributes of Player that GET /rest/players can be limited to with fields=
+    private static final Set<String> FIELDS = new HashSet<>(Arrays.asList("id", "name", "title", "race", "profession",
+            "birthday", "banned", "experience", "level", "untilNextLevel"));
+
+    // the order of PlayerLeaderboard, and the same order walked backwards
+    private static final Sort RANK_ORDER = Sort.by(Sort.Order.desc("experience"), Sort.Order.asc("id"));
+    private static final Sort REVERSED_RANK_ORDER = Sort.by(Sort.Order.asc("experience"), Sort.Order.desc("id"));
+
     private PlayerRepository playerRepository;
+    private PlayerIndexes playerIndexes;
+    private PlayerTextIndex playerTextIndex;
+    private LevelCalculator levelCalculator;
 
     @Autowired
-    public PlayerServiceImpl(PlayerRepository playerRepository) {
+    public PlayerServiceImpl(PlayerRepository playerRepository, PlayerIndexes playerIndexes, PlayerTextIndex playerTextIndex,
+                             LevelCalculator levelCalculator) {
         this.playerRepository = playerRepository;
+        this.playerIndexes = playerIndexes;
+        this.playerTextIndex = playerTextIndex;
+        this.levelCalculator = levelCalculator;
     }
 
     @Override
+    @Transactional
     public Player create(Player player) {
-        if (player.getName() == null ||
+        prepareNewPlayer(player);
+
+        Player createdPlayer = playerRepository.saveAndFlush(player);
+        playerIndexes.onSave(createdPlayer);
+
+        return createdPlayer;
+    }
+
+    @Override
+    @Transactional
+    public List<PlayerBatchResult> createAll(List<Player> players) {
+        boolean[] rejected = new boolean[players.size()];
+        List<Player> playersToBeCreated = new ArrayList<>(players.size());
+
+        for (int i = 0; i < players.size(); i++) {
+            try {
+                prepareNewPlayer(players.get(i));
+                playersToBeCreated.add(players.get(i));
+            } catch (BadRequestException e) {
+                rejected[i] = true;
+            }
+        }
+
+        playerRepository.insertAll(playersToBeCreated);
+
+        List<PlayerBatchResult> results = new ArrayList<>(players.size());
+        for (int i = 0; i < players.size(); i++) {
+            if (rejected[i]) {
+                results.add(new PlayerBatchResult(i, HttpStatus.BAD_REQUEST, null));
+            } else {
+                results.add(new PlayerBatchResult(i, HttpStatus.OK, players.get(i).getId()));
+                playerIndexes.onSave(players.get(i));
+            }
+        }
+
+        return results;
+    }
+
+    private void prepareNewPlayer(Player player) {
+        if (player == null ||
+                player.getName() == null ||
                 player.getTitle() == null ||
                 player.getRace() == null ||
                 player.getProfession() == null ||
@@ -38,45 +119,60 @@ public class PlayerServiceImpl implements PlayerService {
 
         checkPlayerParameters(player);
 
+        // ids are always generated; a client-supplied one (e.g. from an export) would make persist fail
+        player.setId(null);
+        // the entity is cached as saved, so it has to hold the day the DATE column keeps
+        player.setBirthday(Birthdays.startOfDay(player.getBirthday()));
+
         if (player.getBanned() == null)
             player.setBanned(false);
 
-        Integer level = calculateLevel(player.getExperience());
+        int level = levelCalculator.level(player.getExperience());
         player.setLevel(level);
+        player.setUntilNextLevel(levelCalculator.untilNextLevel(level, player.getExperience()));
+    }
 
-        Integer expUntilNextLevel = calculateUntilNextLevel(level, player.getExperience());
-        player.setUntilNextLevel(expUntilNextLevel);
+    @Override
+    public long count(Specification<Player> specification) {
+        return playerRepository.count(specification);
+    }
 
-        return playerRepository.saveAndFlush(player);
+    @Override
+    public Slice<Player> readAll(Specification<Player> specification, Pageable sorted) {
+        return playerRepository.findSlice(specification, sorted);
     }
 
     @Override
-    public List<Player> readAll(Specification<Player> specification) {
-        return playerRepository.findAll(specification);
+    public Slice<Map<String, Object>> readAll(Specification<Player> specification, Pageable sorted, List<String> fields) {
+        Set<String> distinctFields = new LinkedHashSet<>(fields);
+        if (distinctFields.isEmpty() || !FIELDS.containsAll(distinctFields))
+            throw new BadRequestException();
+
+        return playerRepository.findFieldsSlice(specification, sorted, new ArrayList<>(distinctFields));
     }
 
     @Override
-    public Page<Player> readAll(Specification<Player> specification, Pageable sorted) {
-        return playerRepository.findAll(specification, sorted);
+    @Transactional(readOnly = true)
+    public void export(Specification<Player> specification, Sort sort, Consumer<Player> consumer) {
+        try (Stream<Player> players = playerRepository.streamAll(specification, sort)) {
+            players.forEach(consumer);
+        }
     }
 
     @Override
     public Player read(Long id) {
-        if (!playerRepository.existsById(id))
-            throw new PlayerNotFoundException();
-
-        return playerRepository.findById(id).get();
+        // findById is served from the second-level cache, existsById would always hit the database
+        return playerRepository.findById(id).orElseThrow(PlayerNotFoundException::new);
     }
 
     @Override
+    @Transactional
     public Player update(Player player, Long id) {
-        if (!playerRepository.existsById(id))
-            throw new PlayerNotFoundException();
+        // the player stays managed until commit, so the changes below are flushed as one UPDATE without a merge
+        Player playerToBeUpdated = playerRepository.findById(id).orElseThrow(PlayerNotFoundException::new);
 
         checkPlayerParameters(player);
 
-        Player playerToBeUpdated = playerRepository.findById(id).get();
-
         if (player.getName() != null)
             playerToBeUpdated.setName(player.getName());
 
@@ -90,7 +186,7 @@ public class PlayerServiceImpl implements PlayerService {
             playerToBeUpdated.setProfession(player.getProfession());
 
         if (player.getBirthday() != null)
-            playerToBeUpdated.setBirthday(player.getBirthday());
+            playerToBeUpdated.setBirthday(Birthdays.startOfDay(player.getBirthday()));
 
         if (player.getBanned() != null)
             playerToBeUpdated.setBanned(player.getBanned());
@@ -98,78 +194,230 @@ public class PlayerServiceImpl implements PlayerService {
         if (player.getExperience() != null) {
             playerToBeUpdated.setExperience(player.getExperience());
 
-            Integer level = calculateLevel(player.getExperience());
+            int level = levelCalculator.level(player.getExperience());
             playerToBeUpdated.setLevel(level);
+            playerToBeUpdated.setUntilNextLevel(levelCalculator.untilNextLevel(level, player.getExperience()));
+        }
+
+        playerIndexes.onSave(playerToBeUpdated);
+
+        return playerToBeUpdated;
+    }
+
+    @Override
+    @Transactional
+    public List<PlayerBatchResult> grantExperience(List<ExperienceGrant> grants) {
+        Set<Long> ids = new HashSet<>();
+        for (ExperienceGrant grant : grants)
+            if (grant != null && grant.getId() != null)
+                ids.add(grant.getId());
+
+        // one select for all players; the changes are flushed at commit as batched UPDATEs
+        Map<Long, Player> players = new HashMap<>();
+        for (Player player : playerRepository.findAllById(ids))
+            players.put(player.getId(), player);
+
+        List<PlayerBatchResult> results = new ArrayList<>(grants.size());
+        Set<Player> updatedPlayers = new HashSet<>();
+        for (int i = 0; i < grants.size(); i++) {
+            ExperienceGrant grant = grants.get(i);
+            if (grant == null || grant.getId() == null || (grant.getExperience() == null) == (grant.getExperienceDelta() == null)) {
+                results.add(new PlayerBatchResult(i, HttpStatus.BAD_REQUEST, null));
+                continue;
+            }
+
+            Player player = players.get(grant.getId());
+            if (player == null) {
+                results.add(new PlayerBatchResult(i, HttpStatus.NOT_FOUND, grant.getId()));
+                continue;
+            }
 
-            Integer expUntilNextLevel = calculateUntilNextLevel(level, player.getExperience());
-            playerToBeUpdated.setUntilNextLevel(expUntilNextLevel);
+            long experience = grant.getExperience() != null
+                    ? grant.getExperience()
+                    : (long) player.getExperience() + grant.getExperienceDelta();
+            if (experience < 0 || experience > LevelCalculator.MAX_EXPERIENCE) {
+                results.add(new PlayerBatchResult(i, HttpStatus.BAD_REQUEST, grant.getId()));
+                continue;
+            }
+
+            player.setExperience((int) experience);
+
+            int level = levelCalculator.level(player.getExperience());
+            player.setLevel(level);
+            player.setUntilNextLevel(levelCalculator.untilNextLevel(level, player.getExperience()));
+
+            updatedPlayers.add(player);
+            results.add(new PlayerBatchResult(i, HttpStatus.OK, grant.getId()));
         }
 
-        return playerRepository.save(playerToBeUpdated);
+        for (Player player : updatedPlayers)
+            playerIndexes.onSave(player);
+
+        return results;
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
-        if (!playerRepository.existsById(id))
+        // one conditional statement instead of a select followed by a delete; a bulk JPQL delete would
+        // clear the whole player region, this one evicts just the deleted id
+        if (playerRepository.deletePlayer(id) == 0)
             throw new PlayerNotFoundException();
 
-        playerRepository.deleteById(id);
+        playerIndexes.onDelete(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LeaderboardEntry rank(Long id) {
+        Player player = playerRepository.findById(id).orElse(null);
+        if (player == null || player.getExperience() == null)
+            return null;
+
+        return entry(player, playerRepository.count(rankedBefore(player)) + 1);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<LeaderboardEntry> topRanks(int limit) {
+        return entries(playerRepository.findSlice(ranked(), PageRequest.of(0, limit, RANK_ORDER)).getContent(), 1);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<LeaderboardEntry> ranksAround(Long id, int limit) {
+        Player player = playerRepository.findById(id).orElse(null);
+        if (player == null || player.getExperience() == null)
+            return null;
+
+        long rank = playerRepository.count(rankedBefore(player)) + 1;
+        long firstRank = Math.max(1, Math.min(rank - limit / 2, playerRepository.count(ranked()) - limit + 1));
+
+        // walks back from the player to the first rank, then forward from it, instead of skipping firstRank - 1 rows
+        List<Player> players = new ArrayList<>(limit);
+        if (firstRank < rank) {
+            players.addAll(playerRepository.findSlice(rankedBefore(player),
+                    PageRequest.of(0, (int) (rank - firstRank), REVERSED_RANK_ORDER)).getContent());
+            Collections.reverse(players);
+        }
+        players.addAll(playerRepository.findSlice(rankedFrom(player),
+                PageRequest.of(0, limit - players.size(), RANK_ORDER)).getContent());
+
+        return entries(players, firstRank);
+    }
+
+    private static Specification<Player> ranked() {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.isNotNull(root.get("experience"));
+    }
+
+    private static Specification<Player> rankedBefore(Player player) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.greaterThan(root.get("experience"), player.getExperience()),
+                criteriaBuilder.and(criteriaBuilder.equal(root.get("experience"), player.getExperience()),
+                        criteriaBuilder.lessThan(root.get("id"), player.getId())));
+    }
+
+    private static Specification<Player> rankedFrom(Player player) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.lessThan(root.get("experience"), player.getExperience()),
+                criteriaBuilder.and(criteriaBuilder.equal(root.get("experience"), player.getExperience()),
+                        criteriaBuilder.greaterThanOrEqualTo(root.get("id"), player.getId())));
+    }
+
+    private static List<LeaderboardEntry> entries(List<Player> players, long firstRank) {
+        List<LeaderboardEntry> entries = new ArrayList<>(players.size());
+        for (Player player : players)
+            entries.add(entry(player, firstRank + entries.size()));
+
+        return entries;
+    }
+
+    private static LeaderboardEntry entry(Player player, long rank) {
+        return new LeaderboardEntry(rank, player.getId(), player.getName(), player.getExperience(), player.getLevel());
     }
 
     @Override
     public Long checkId(String id) {
-        if (id == null || id.isEmpty() || id.equalsIgnoreCase("0"))
+        long parsedId = parseId(id);
+        if (parsedId <= 0)
             throw new BadRequestException();
 
-        try {
-            Long id1 = Long.parseLong(id);
-            return id1;
-        } catch (NumberFormatException e) {
-            throw new BadRequestException();
+        return parsedId;
+    }
+
+    /**
+     * Parses a positive decimal id without allocating or throwing.
+     *
+     * @return the id, or -1 if {@code id} is empty, not all digits, zero or too large for a long
+     */
+    static long parseId(String id) {
+        if (id == null || id.isEmpty() || id.length() > 19)
+            return -1;
+
+        long value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            int digit = id.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+                return -1;
+            // up to 18 digits always fit, the 19th can overflow
+            if (i == 18 && value > (Long.MAX_VALUE - digit) / 10)
+                return -1;
+            value = value * 10 + digit;
         }
+
+        return value == 0 ? -1 : value;
     }
 
-    private void checkPlayerParameters(Player player) {
+    // package-private for PlayerValidationBenchmark
+    void checkPlayerParameters(Player player) {
         if (player.getName() != null && (player.getName().length() > 12 || player.getName().isEmpty()))
             throw new BadRequestException();
 
         if (player.getTitle() != null && (player.getTitle().length() > 30))
             throw new BadRequestException();
 
-        if (player.getExperience() != null && (player.getExperience() < 0 || player.getExperience() > 10_000_000))
+        if (player.getExperience() != null && (player.getExperience() < 0 || player.getExperience() > LevelCalculator.MAX_EXPERIENCE))
             throw new BadRequestException();
 
-        if (player.getBirthday() != null && player.getBirthday().getTime() < 0)
+        if (player.getBirthday() != null && (player.getBirthday().getTime() < MIN_BIRTHDAY
+                || player.getBirthday().getTime() >= MAX_BIRTHDAY_EXCLUSIVE))
             throw new BadRequestException();
-
-        if (player.getBirthday() != null) {
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(player.getBirthday());
-            if (calendar.get(Calendar.YEAR) < 2000 || calendar.get(Calendar.YEAR) > 3000)
-                throw new BadRequestException();
-        }
-    }
-
-    private Integer calculateLevel(Integer exp) {
-        Integer level = (int) ((Math.sqrt(2500 + 200 * exp) - 50) / 100);
-
-        return level;
     }
 
-    private Integer calculateUntilNextLevel(Integer level, Integer exp) {
-        Integer necessaryExp = 50 * (level + 1) * (level + 2) - exp;
+    private static long startOfYear(int year) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, Calendar.JANUARY, 1);
 
-        return necessaryExp;
+        return calendar.getTimeInMillis();
     }
 
     @Override
     public Specification<Player> filterByName(String name) {
-        return (root, query, cb) -> name == null ? null : cb.like(root.get("name"), "%" + name + "%");
+        return (root, query, cb) -> name == null ? null : narrowToCandidates(
+                playerIndexes.isCurrent() ? playerTextIndex.nameCandidates(name) : null,
+                root, cb, cb.like(root.get("name"), "%" + name + "%"));
     }
 
     @Override
     public Specification<Player> filterByTitle(String title) {
-        return (root, query, criteriaBuilder) -> title == null ? null : criteriaBuilder.like(root.get("title"), "%" + title + "%");
+        return (root, query, criteriaBuilder) -> title == null ? null : narrowToCandidates(
+                playerIndexes.isCurrent() ? playerTextIndex.titleCandidates(title) : null,
+                root, criteriaBuilder, criteriaBuilder.like(root.get("title"), "%" + title + "%"));
+    }
+
+    /**
+     * Restricts a LIKE predicate to the ids found by the n-gram index; the LIKE itself is kept so the
+     * database collation still decides the exact match. Null candidates mean the index could not help, or
+     * may miss rows another process wrote since the last refresh.
+     */
+    private Predicate narrowToCandidates(Set<Long> candidates, Root<Player> root, CriteriaBuilder criteriaBuilder, Predicate like) {
+        if (candidates == null)
+            return like;
+        if (candidates.isEmpty())
+            return criteriaBuilder.disjunction();
+
+        return criteriaBuilder.and(root.get("id").in(candidates), like);
     }
 
     @Override
@@ -244,4 +492,56 @@ public class PlayerServiceImpl implements PlayerService {
             return criteriaBuilder.between(root.get("level"), minLevel, maxLevel);
         };
     }
-}
+
+    /**
+     * Keyset pagination predicate. The cursor is "sortKey,id" of the last row already returned
+     * (just "id" for {@link PlayerOrder#ID}); birthday keys are epoch millis as in the JSON output.
+     */
+    @Override
+    public Specification<Player> filterByCursor(PlayerOrder order, String cursor) {
+        if (cursor == null)
+            return (root, query, criteriaBuilder) -> null;
+
+        int separator = cursor.lastIndexOf(',');
+        Long lastId = parseCursorId(separator < 0 ? cursor : cursor.substring(separator + 1));
+
+        if (order == PlayerOrder.ID)
+            return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThan(root.get("id"), lastId);
+
+        if (separator < 0)
+            throw new BadRequestException();
+
+        String key = cursor.substring(0, separator);
+        try {
+            switch (order) {
+                case NAME:
+                    return seekAfter(order.getFieldName(), key, lastId);
+                case EXPERIENCE:
+                case LEVEL:
+                    return seekAfter(order.getFieldName(), Integer.valueOf(key), lastId);
+                case BIRTHDAY:
+                    return seekAfter(order.getFieldName(), new Date(Long.parseLong(key)), lastId);
+                default:
+                    throw new BadRequestException();
+            }
+        } catch (NumberFormatException e) {
+            throw new BadRequestException();
+        }
+    }
+
+    private Long parseCursorId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException();
+        }
+    }
+
+    private <T extends Comparable<? super T>> Specification<Player> seekAfter(String fieldName, T key, Long lastId) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.greaterThan(root.<T>get(fieldName), key),
+                criteriaBuilder.and(
+                        criteriaBuilder.equal(root.get(fieldName), key),
+                        criteriaBuilder.greaterThan(root.get("id"), lastId)));
+    }
+}
\ No newline at end of file
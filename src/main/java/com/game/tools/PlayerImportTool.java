@@ -0,0 +1,64 @@
+package com.game.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.service.ImportFormat;
+import com.game.service.PlayerImporter;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+/**
+ * Command line counterpart of {@code POST /rest/players/import}:
+ * <pre>
+ * java -cp ... com.game.tools.PlayerImportTool players.ndjson [NDJSON|CSV] [chunkSize]
+ * </pre>
+ * Runs against the prod database unless {@code -Dspring.profiles.active} says otherwise,
+ * and prints one NDJSON progress report per committed chunk. Only the beans of
+ * {@link PlayerImportToolConfig} are started.
+ */
+public class PlayerImportTool {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: PlayerImportTool <file> [NDJSON|CSV] [chunkSize]");
+            System.exit(2);
+        }
+
+        ImportFormat format = args.length > 1 ? ImportFormat.valueOf(args[1].toUpperCase()) : ImportFormat.NDJSON;
+        Integer chunkSize = args.length > 2 ? Integer.valueOf(args[2]) : null;
+
+        AnnotationConfigApplicationContext context = createContext("prod");
+        try (Reader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            context.getBean(PlayerImporter.class).importPlayers(reader, format, chunkSize, progress -> {
+                try {
+                    System.out.println(objectMapper.writeValueAsString(progress));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } finally {
+            context.close();
+        }
+    }
+
+    // package-private for PlayerImportToolTest
+    static AnnotationConfigApplicationContext createContext(String defaultProfile) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setDefaultProfiles(defaultProfile);
+        // every player is written once and never read back
+        context.getEnvironment().getPropertySources().addFirst(
+                new MapPropertySource("import", Collections.singletonMap("db.cache.enabled", "false")));
+        context.register(PlayerImportToolConfig.class);
+        context.refresh();
+
+        return context;
+    }
+}
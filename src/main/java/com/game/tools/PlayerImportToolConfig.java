@@ -0,0 +1,49 @@
+package com.game.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.config.AppConfig;
+import com.game.config.DataConfig;
+import com.game.index.PlayerIndexes;
+import com.game.index.PlayerTextIndex;
+import com.game.metrics.MetricsRegistry;
+import com.game.repository.PlayerRepository;
+import com.game.service.LevelCalculator;
+import com.game.service.PlayerImporter;
+import com.game.service.PlayerService;
+import com.game.service.PlayerServiceImpl;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+/**
+ * What {@link PlayerImportTool} starts: {@link DataConfig} and the service under {@link PlayerImporter}.
+ * There are no in-memory indexes to load the table into or to add every imported player to, and nothing
+ * is scheduled, so memory stays flat however large the table and the input are. Imported players still
+ * increment {@code player_version}, so running application instances pick them up.
+ * <p>
+ * Not a {@code @Configuration}, so that the component scan of {@link AppConfig} leaves it out.
+ */
+@Import({DataConfig.class, MetricsRegistry.class, LevelCalculator.class, PlayerImporter.class})
+public class PlayerImportToolConfig {
+
+    @Bean
+    public PlayerIndexes playerIndexes(PlayerRepository playerRepository, EntityManagerFactory entityManagerFactory) {
+        return new PlayerIndexes(playerRepository, entityManagerFactory, Collections.emptyList());
+    }
+
+    /**
+     * The text index is only there for the name and title filters, which the import does not use; it is not
+     * a bean, so nothing fills it.
+     */
+    @Bean
+    public PlayerService playerService(PlayerRepository playerRepository, PlayerIndexes playerIndexes, LevelCalculator levelCalculator) {
+        return new PlayerServiceImpl(playerRepository, playerIndexes, new PlayerTextIndex(), levelCalculator);
+    }
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        return new AppConfig().objectMapper();
+    }
+}
@@ -0,0 +1,13 @@
+-- Indexes for the filters and orders built by PlayerController.readAll / getCount.
+-- InnoDB appends the primary key to every secondary index, so (level) is really (level, id),
+-- which matches the "order by <field>, id" used for paging and cursors.
+
+-- race / race + profession / race + profession + banned equality filters
+CREATE INDEX idx_player_race_profession_banned ON player (race, profession, banned);
+-- profession / profession + banned without race
+CREATE INDEX idx_player_profession_banned ON player (profession, banned);
+-- range filters, and order=EXPERIENCE / LEVEL / BIRTHDAY / NAME
+CREATE INDEX idx_player_experience ON player (experience);
+CREATE INDEX idx_player_level ON player (level);
+CREATE INDEX idx_player_birthday ON player (birthday);
+CREATE INDEX idx_player_name ON player (name);
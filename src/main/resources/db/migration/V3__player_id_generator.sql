@@ -0,0 +1,14 @@
+-- Player ids move from AUTO_INCREMENT to a table generator so that inserts can be batched.
+-- Hibernate reserves blocks of 50 ids; next_val is the first id of the next free block.
+CREATE TABLE id_generator
+(
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val      BIGINT(20)   NULL,
+    PRIMARY KEY (sequence_name)
+)
+    ENGINE = InnoDB
+    DEFAULT CHARACTER SET = utf8;
+
+INSERT INTO id_generator(sequence_name, next_val)
+SELECT 'player', COALESCE(MAX(id), 0) + 1
+FROM player;
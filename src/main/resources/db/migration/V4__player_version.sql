@@ -0,0 +1,14 @@
+-- Counts committed changes to the player table. Every write through PlayerService increments it in the same
+-- transaction, so an instance can tell that its in-memory indexes missed a change made by another process.
+-- Scripts that change the player table directly should increment it as well.
+CREATE TABLE player_version
+(
+    id      INT        NOT NULL,
+    version BIGINT(20) NOT NULL,
+    PRIMARY KEY (id)
+)
+    ENGINE = InnoDB
+    DEFAULT CHARACTER SET = utf8;
+
+INSERT INTO player_version(id, version)
+VALUES (1, 0);
@@ -3,6 +3,7 @@ package com.game.controller;
 import com.game.config.AppConfig;
 import com.game.config.MyWebAppInit;
 import com.game.config.WebConfig;
+import com.game.index.PlayerIndexes;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,10 +13,11 @@ import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlConfig;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
-import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import javax.persistence.EntityManagerFactory;
+
 @RunWith(SpringJUnit4ClassRunner.class)
 @ActiveProfiles("dev")
 @ContextConfiguration(classes = {AppConfig.class, MyWebAppInit.class, WebConfig.class})
@@ -24,21 +26,30 @@ import org.springframework.web.context.WebApplicationContext;
 public abstract class AbstractTest {
 
     WebApplicationContext context;
-    MockMvc mockMvc;
+    AsyncMockMvc mockMvc;
 
     @Autowired
     public void setContext(WebApplicationContext context) {
         this.context = context;
     }
 
+    @Autowired
+    PlayerIndexes playerIndexes;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
     @Before
     public void setup() {
-        mockMvc = MockMvcBuilders
+        // test.sql recreates the table underneath the service, so cached rows and the in-memory indexes are reloaded
+        playerIndexes.rebuild();
+
+        mockMvc = new AsyncMockMvc(MockMvcBuilders
                 .webAppContextSetup(context)
                 .addFilter(((request, response, chain) -> {
                     response.setCharacterEncoding("UTF-8");
                     chain.doFilter(request, response);
                 }))
-                .build();
+                .build());
     }
 }
@@ -0,0 +1,28 @@
+package com.game.controller;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+/**
+ * MockMvc that waits for asynchronous handlers and dispatches their result, so a test sees the
+ * final response whether the endpoint returns a value or a future.
+ */
+class AsyncMockMvc {
+
+    private final MockMvc mockMvc;
+
+    AsyncMockMvc(MockMvc mockMvc) {
+        this.mockMvc = mockMvc;
+    }
+
+    ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        ResultActions actions = mockMvc.perform(requestBuilder);
+        MvcResult result = actions.andReturn();
+
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
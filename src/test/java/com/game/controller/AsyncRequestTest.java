@@ -0,0 +1,62 @@
+package com.game.controller;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AsyncRequestTest extends AbstractTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    ThreadPoolTaskExecutor playerExecutor;
+
+    //test1
+    @Test
+    public void saturatedExecutorTest() throws Exception {
+        int threads = playerExecutor.getMaxPoolSize();
+        CountDownLatch started = new CountDownLatch(threads);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(threads);
+        try {
+            for (int i = 0; i < threads; i++) {
+                playerExecutor.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        finished.countDown();
+                    }
+                });
+            }
+            // the queue is FIFO, so once every worker runs one of these tasks nothing submitted before is left
+            assertTrue("Все потоки исполнителя должны быть заняты", started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            int queueCapacity = playerExecutor.getThreadPoolExecutor().getQueue().remainingCapacity();
+            CountDownLatch queued = new CountDownLatch(queueCapacity);
+            for (int i = 0; i < queueCapacity; i++)
+                playerExecutor.execute(queued::countDown);
+
+            mockMvc.perform(get("/rest/players/1"))
+                    .andExpect(status().isServiceUnavailable());
+
+            release.countDown();
+            assertTrue("Занимавшие потоки задачи должны завершиться", finished.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertTrue("Очередь исполнителя должна освободиться", queued.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+
+        mockMvc.perform(get("/rest/players/1"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,106 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import com.game.entity.Race;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs every GetAllTest case with the column store answering the queries it supports.
+ */
+@TestPropertySource(properties = "replica.enabled=true")
+public class ColumnStoreGetAllTest extends GetAllTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TypeReference<List<PlayerInfoTest>> typeReference = new TypeReference<List<PlayerInfoTest>>() {
+    };
+
+    //test11
+    @Test
+    @Override
+    public void getAllRunsSingleQueryWithoutCount() throws Exception {
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        String contentAsString = mockMvc.perform(get("/rest/players?race=ELF&pageNumber=1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<PlayerInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<PlayerInfoTest> expected = testsHelper.getPlayerInfosByPage(1, 3,
+                testsHelper.getPlayerInfosByRace(Race.ELF, testsHelper.getAllPlayers()));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметрами race и pageNumber.", expected, actual);
+        assertEquals("Запрос GET /rest/players без фильтров name и title не должен обращаться к базе данных.", 0L, statistics.getPrepareStatementCount());
+    }
+
+    //test16
+    @Test
+    public void getAllSeesUpdatesAndDeletes() throws Exception {
+        mockMvc.perform(post("/rest/players/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"race\": \"GIANT\", \"experience\": 9000000}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/rest/players/2"))
+                .andExpect(status().isOk());
+
+        String contentAsString = mockMvc.perform(get("/rest/players?race=GIANT&minExperience=9000000"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<PlayerInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players после изменения игрока.", 1, actual.size());
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players после изменения игрока.", 1L, actual.get(0).id);
+
+        contentAsString = mockMvc.perform(get("/rest/players?pageSize=2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        actual = mapper.readValue(contentAsString, typeReference);
+        assertEquals("Удалённый игрок не должен возвращаться при запросе GET /rest/players.", 3L, actual.get(1).id);
+    }
+
+    //test17
+    @Test
+    public void getAllAndCountTruncateBirthdayLikeTheDatabase() throws Exception {
+        // 123 ms past midnight at UTC+3, where the tests run; the DATE column keeps only the day
+        mockMvc.perform(post("/rest/players/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"birthday\": 988059600123}"))
+                .andExpect(status().isOk());
+
+        String filter = "after=987800400000&before=988059600000";
+        // the export always reads the table
+        List<PlayerInfoTest> fromDatabase = mapper.readValue(mockMvc.perform(get("/rest/players/export?" + filter))
+                .andReturn().getResponse().getContentAsString(), typeReference);
+        assertTrue("База данных должна находить игрока по дате рождения без времени.",
+                fromDatabase.stream().anyMatch(player -> player.id == 1L));
+
+        List<PlayerInfoTest> actual = mapper.readValue(mockMvc.perform(get("/rest/players?pageSize=40&" + filter))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), typeReference);
+        assertEquals("GET /rest/players должен отбрасывать время дня у даты рождения, как база данных.", fromDatabase, actual);
+
+        String count = mockMvc.perform(get("/rest/players/count?" + filter))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("GET /rest/players/count должен отбрасывать время дня у даты рождения, как база данных.",
+                String.valueOf(fromDatabase.size()), count);
+    }
+}
@@ -0,0 +1,65 @@
+package com.game.controller;
+
+import com.game.controller.utils.TestsHelper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs every GetCountTest case with the column store answering the queries it supports.
+ */
+@TestPropertySource(properties = "replica.enabled=true")
+public class ColumnStoreGetCountTest extends GetCountTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+
+    //test9
+    @Test
+    @Override
+    public void getCountDoesNotLoadPlayers() throws Exception {
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        String contentAsString = this.mockMvc.perform(get("/rest/players/count?banned=false")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        int actual = Integer.parseInt(contentAsString);
+        int expected = testsHelper.getPlayerInfosByBaned(false, testsHelper.getAllPlayers()).size();
+
+        assertSame("Возвращается не правильный результат при запросе GET /rest/players/count с параметром banned.", expected, actual);
+        assertEquals("Запрос GET /rest/players/count без фильтров name и title не должен обращаться к базе данных.", 0, statistics.getPrepareStatementCount());
+    }
+
+    //test10
+    @Test
+    @Override
+    public void getCountWithFilterAfterRunsSingleQuery() throws Exception {
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        String contentAsString = this.mockMvc.perform(get("/rest/players/count?banned=false&after=1104530400000")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        int actual = Integer.parseInt(contentAsString);
+        int expected = testsHelper.getPlayerInfosByBaned(false,
+                testsHelper.getPlayerInfosByAfter(1104530400000L, testsHelper.getAllPlayers())).size();
+
+        assertSame("Возвращается не правильный результат при запросе GET /rest/players/count с параметрами banned и after.", expected, actual);
+        assertEquals("Запрос GET /rest/players/count без фильтров name и title не должен обращаться к базе данных.", 0, statistics.getPrepareStatementCount());
+    }
+}
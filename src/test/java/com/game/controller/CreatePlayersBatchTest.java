@@ -0,0 +1,87 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CreatePlayersBatchTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void createPlayersBatchEmptyBodyTest() throws Exception {
+        mockMvc.perform(post("/rest/players/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(""))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test2
+    @Test
+    public void createPlayersBatchTest() throws Exception {
+        String content = "[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.TOO_BIG_EXPERIENCE_JSON + "," + TestsHelper.NORMAL_JSON + "]";
+
+        String contentAsString = mockMvc.perform(post("/rest/players/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(content))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode results = mapper.readTree(contentAsString);
+        assertEquals("Возвращается неправильное количество результатов при запросе POST /rest/players/batch", 3, results.size());
+        assertEquals("Неправильный статус корректного игрока в POST /rest/players/batch", 200, results.get(0).get("status").asInt());
+        assertEquals("Неправильный статус некорректного игрока в POST /rest/players/batch", 400, results.get(1).get("status").asInt());
+        assertEquals("Неправильный статус корректного игрока в POST /rest/players/batch", 200, results.get(2).get("status").asInt());
+
+        for (int i : new int[]{0, 2}) {
+            String player = mockMvc.perform(get("/rest/players/" + results.get(i).get("id").asLong()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            PlayerInfoTest actual = mapper.readValue(player, PlayerInfoTest.class);
+            assertEquals("Созданный игрок не найден после POST /rest/players/batch", "Амарылис", actual.name);
+            assertEquals("Неправильно рассчитан уровень игрока при POST /rest/players/batch", 35, actual.level);
+        }
+
+        String count = mockMvc.perform(get("/rest/players/count"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Неправильное количество игроков после POST /rest/players/batch", "42", count);
+    }
+
+    //test3
+    @Test
+    public void createPlayersBatchWithIdsTest() throws Exception {
+        String content = "[" + String.format(TestsHelper.NORMAL_JSON_WITH_ID, 5) + "," + String.format(TestsHelper.NORMAL_JSON_WITH_ID, 1000) + "]";
+
+        String contentAsString = mockMvc.perform(post("/rest/players/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(content))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode results = mapper.readTree(contentAsString);
+        assertEquals("Неправильный статус игрока с id в POST /rest/players/batch", 200, results.get(0).get("status").asInt());
+        assertEquals("Неправильный статус игрока с id в POST /rest/players/batch", 200, results.get(1).get("status").asInt());
+        assertTrue("Переданный id должен игнорироваться при POST /rest/players/batch",
+                results.get(0).get("id").asLong() > 40 && results.get(1).get("id").asLong() > 40);
+
+        String player = mockMvc.perform(get("/rest/players/5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("POST /rest/players/batch с id не должен изменять существующего игрока", "Элеонора",
+                mapper.readValue(player, PlayerInfoTest.class).name);
+
+        String count = mockMvc.perform(get("/rest/players/count"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Неправильное количество игроков после POST /rest/players/batch", "42", count);
+    }
+}
@@ -0,0 +1,114 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertThrows;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ExportPlayersTest extends AbstractTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+    private final TypeReference<List<PlayerInfoTest>> typeReference = new TypeReference<List<PlayerInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void exportJsonWithoutFiltersReturnsAllPlayers() throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/players/export"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<PlayerInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players/export.", testsHelper.getAllPlayers(), actual);
+    }
+
+    //test2
+    @Test
+    public void exportNdjsonWithFiltersRaceMinLevel() throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/players/export?race=ELF&minLevel=40&format=NDJSON"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<PlayerInfoTest> actual = new ArrayList<>();
+        for (String line : contentAsString.split("\n"))
+            actual.add(mapper.readValue(line, PlayerInfoTest.class));
+        List<PlayerInfoTest> expected = testsHelper.getPlayerInfosByRace(Race.ELF,
+                testsHelper.getPlayerInfosByMinLevel(40, testsHelper.getAllPlayers()));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players/export в формате NDJSON.", expected, actual);
+    }
+
+    //test3
+    @Test
+    public void exportCsvWithFilterBanned() throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/players/export?banned=true&format=CSV"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = contentAsString.split("\n");
+        List<PlayerInfoTest> expected = testsHelper.getPlayerInfosByBaned(true, testsHelper.getAllPlayers());
+
+        assertEquals("Неправильный заголовок при запросе GET /rest/players/export в формате CSV.",
+                "id,name,title,race,profession,birthday,banned,experience,level,untilNextLevel", lines[0]);
+        assertEquals("Неправильное количество строк при запросе GET /rest/players/export в формате CSV.", expected.size() + 1, lines.length);
+
+        PlayerInfoTest first = expected.get(0);
+        assertEquals("Неправильная строка при запросе GET /rest/players/export в формате CSV.",
+                first.id + "," + first.name + "," + first.title + "," + first.race + "," + first.profession + "," + first.birthday
+                        + "," + first.banned + "," + first.experience + "," + first.level + "," + first.untilNextLevel, lines[1]);
+    }
+
+    //test4
+    @Test
+    public void exportSmileWithFilterProfession() throws Exception {
+        byte[] content = mockMvc.perform(get("/rest/players/export?profession=WARRIOR&format=SMILE"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<PlayerInfoTest> actual = smileMapper.readValue(content, typeReference);
+        List<PlayerInfoTest> expected = testsHelper.getPlayerInfosByProfession(Profession.WARRIOR, testsHelper.getAllPlayers());
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players/export в формате SMILE.", expected, actual);
+    }
+
+    //test5
+    @Test
+    public void exportWithoutFormatFollowsAcceptHeader() throws Exception {
+        byte[] content = mockMvc.perform(get("/rest/players/export").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<PlayerInfoTest> actual = smileMapper.readValue(content, typeReference);
+
+        assertEquals("Формат выгрузки должен выбираться по заголовку Accept, если параметр format не указан.", testsHelper.getAllPlayers(), actual);
+    }
+
+    //test6
+    @Test
+    public void exportFailingMidwayIsNotAnsweredAsComplete() {
+        // the export reads this row last and cannot convert it to a Player
+        new JdbcTemplate(context.getBean(DataSource.class)).update(
+                "INSERT INTO player(id, name, title, race, profession, birthday, banned, experience, level, untilNextLevel) " +
+                "VALUES (100, 'Сломанный', 'Импорт', 'DRAGON', 'WARRIOR', '2005-05-05', false, 3000, 7, 600)");
+
+        assertThrows("Ошибка базы данных посреди GET /rest/players/export должна доходить до контейнера, а не завершать ответ.",
+                Exception.class, () -> mockMvc.perform(get("/rest/players/export")));
+    }
+}
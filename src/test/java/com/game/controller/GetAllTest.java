@@ -2,19 +2,32 @@ package com.game.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.game.entity.Profession;
 import com.game.entity.Race;
 import com.game.controller.utils.PlayerInfoTest;
 import com.game.controller.utils.TestsHelper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class GetAllTest extends AbstractTest {
@@ -24,6 +37,9 @@ public class GetAllTest extends AbstractTest {
     private final TypeReference<List<PlayerInfoTest>> typeReference = new TypeReference<List<PlayerInfoTest>>() {
     };
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     //test1
     @Test
     public void getAllWithoutFiltersReturnAllPlayers() throws Exception {
@@ -172,4 +188,151 @@ public class GetAllTest extends AbstractTest {
 
         assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметрами after, before, minExperience и maxExperience.", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test9
+    @Test
+    public void getAllWithCursorWalksEveryPlayerInOrder() throws Exception {
+        List<PlayerInfoTest> actual = new ArrayList<>();
+        String cursor = null;
+        List<PlayerInfoTest> page;
+        do {
+            String url = "/rest/players?order=BIRTHDAY&pageSize=4" + (cursor == null ? "" : "&cursor=" + cursor);
+            String contentAsString = mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            page = mapper.readValue(contentAsString, typeReference);
+            actual.addAll(page);
+            if (!page.isEmpty()) {
+                PlayerInfoTest last = page.get(page.size() - 1);
+                cursor = last.birthday + "," + last.id;
+            }
+        } while (!page.isEmpty());
+
+        List<PlayerInfoTest> expected = new ArrayList<>(testsHelper.getAllPlayers());
+        expected.sort(Comparator.comparing((PlayerInfoTest p) -> p.birthday).thenComparing(p -> p.id));
+
+        assertEquals("Возвращается не правильный результат при постраничном обходе GET /rest/players с параметром cursor.", expected, actual);
+    }
+
+    //test10
+    @Test
+    public void getAllWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/rest/players?order=EXPERIENCE&cursor=abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test11
+    @Test
+    public void getAllRunsSingleQueryWithoutCount() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        String contentAsString = mockMvc.perform(get("/rest/players?race=ELF&pageNumber=1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<PlayerInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<PlayerInfoTest> expected = testsHelper.getPlayerInfosByPage(1, 3,
+                testsHelper.getPlayerInfosByRace(Race.ELF, testsHelper.getAllPlayers()));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметрами race и pageNumber.", expected, actual);
+        assertEquals("Запрос GET /rest/players должен выполняться одним SQL-запросом без подсчёта количества.", 1L, statistics.getPrepareStatementCount());
+    }
+
+    //test12
+    @Test
+    public void getAllWithFilterNameSeesUpdatedName() throws Exception {
+        mockMvc.perform(post("/rest/players/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Новоимя\"}"))
+                .andExpect(status().isOk());
+
+        String contentAsString = mockMvc.perform(get("/rest/players?name=воим"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<PlayerInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметром name после изменения имени.", 1, actual.size());
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметром name после изменения имени.", 1L, actual.get(0).id);
+
+        contentAsString = mockMvc.perform(get("/rest/players?name=Ниус"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players по старому имени.", 0, mapper.readValue(contentAsString, typeReference).size());
+    }
+
+    //test13
+    @Test
+    public void getAllInSmileMatchesJson() throws Exception {
+        byte[] content = mockMvc.perform(get("/rest/players?race=ELF&pageSize=10")
+                .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<PlayerInfoTest> actual = new ObjectMapper(new SmileFactory()).readValue(content, typeReference);
+        List<PlayerInfoTest> expected = testsHelper.getPlayerInfosByPage(0, 10,
+                testsHelper.getPlayerInfosByRace(Race.ELF, testsHelper.getAllPlayers()));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players в формате Smile.", expected, actual);
+    }
+
+    //test14
+    @Test
+    public void getAllWithFieldsReturnsOnlyThoseFields() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        String contentAsString = mockMvc.perform(get("/rest/players?race=ELF&pageNumber=1&fields=id,name,level"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<Map<String, Object>> actual = mapper.readValue(contentAsString, new TypeReference<List<Map<String, Object>>>() {
+        });
+        List<Map<String, Object>> expected = new ArrayList<>();
+        for (PlayerInfoTest player : testsHelper.getPlayerInfosByPage(1, 3,
+                testsHelper.getPlayerInfosByRace(Race.ELF, testsHelper.getAllPlayers()))) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", player.id.intValue());
+            row.put("name", player.name);
+            row.put("level", player.level);
+            expected.add(row);
+        }
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметром fields.", expected, actual);
+        assertEquals("Запрос GET /rest/players с параметром fields не должен загружать сущности Player.", 0L, statistics.getEntityLoadCount());
+        assertEquals("Запрос GET /rest/players с параметром fields должен выполняться одним SQL-запросом.", 1L, statistics.getPrepareStatementCount());
+    }
+
+    //test15
+    @Test
+    public void getAllWithInvalidFields() throws Exception {
+        mockMvc.perform(get("/rest/players?fields=id,password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/players?fields="))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test16
+    @Test
+    public void getAllByNameSeesPlayersOfOtherProcessesBeforeRefresh() throws Exception {
+        // what PlayerImportTool or another instance would commit; the n-gram index has not seen it yet
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("INSERT INTO player(id, name, title, race, profession, birthday, banned, experience, level, untilNextLevel) " +
+                "VALUES (100, 'Внешний', 'Импорт', 'GIANT', 'WARRIOR', '2005-05-05', false, 3000, 7, 600)");
+        jdbcTemplate.update("UPDATE player_version SET version = version + 1 WHERE id = 1");
+        // the first check only marks the indexes stale, they are rebuilt after the second one
+        playerIndexes.refreshIfStale();
+
+        String contentAsString = mockMvc.perform(get("/rest/players?name=Внешн&title=Импор"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<PlayerInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        assertEquals("GET /rest/players с параметрами name и title не находит игрока, добавленного другим процессом.",
+                1, actual.size());
+        assertEquals("GET /rest/players с параметрами name и title не находит игрока, добавленного другим процессом.",
+                100L, actual.get(0).id.longValue());
+    }
+}
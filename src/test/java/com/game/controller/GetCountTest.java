@@ -3,19 +3,32 @@ package com.game.controller;
 import com.game.entity.Profession;
 import com.game.entity.Race;
 import com.game.controller.utils.TestsHelper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class GetCountTest extends AbstractTest {
 
     private final TestsHelper testsHelper = new TestsHelper();
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     //test1
     @Test
     public void getCountWithoutFiltersReturnAllPlayers() throws Exception {
@@ -151,4 +164,138 @@ public class GetCountTest extends AbstractTest {
 
         assertSame("Во звращается не правильный результат при запросе GET /rest/players/count с параметром banned.", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test9
+    @Test
+    public void getCountDoesNotLoadPlayers() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        ResultActions resultActions = this.mockMvc.perform(get("/rest/players/count?banned=false")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        int actual = Integer.parseInt(resultActions.andReturn().getResponse().getContentAsString());
+        int expected = testsHelper.getPlayerInfosByBaned(false, testsHelper.getAllPlayers()).size();
+
+        assertSame("Возвращается не правильный результат при запросе GET /rest/players/count с параметром banned.", expected, actual);
+        assertEquals("Запрос GET /rest/players/count не должен загружать сущности Player.", 0, statistics.getEntityLoadCount());
+        assertEquals("Запрос GET /rest/players/count с фильтром banned должен отвечаться из счётчиков без SQL-запросов.", 0, statistics.getPrepareStatementCount());
+    }
+
+    //test10
+    @Test
+    public void getCountWithFilterAfterRunsSingleQuery() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        ResultActions resultActions = this.mockMvc.perform(get("/rest/players/count?banned=false&after=1104530400000")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        int actual = Integer.parseInt(resultActions.andReturn().getResponse().getContentAsString());
+        int expected = testsHelper.getPlayerInfosByBaned(false,
+                testsHelper.getPlayerInfosByAfter(1104530400000L, testsHelper.getAllPlayers())).size();
+
+        assertSame("Возвращается не правильный результат при запросе GET /rest/players/count с параметрами banned и after.", expected, actual);
+        assertEquals("Запрос GET /rest/players/count с параметром after должен выполняться одним SQL-запросом.", 1, statistics.getPrepareStatementCount());
+    }
+
+    //test11
+    @Test
+    public void getCountSeesUpdatesAndDeletes() throws Exception {
+        // 2800 to 5499 experience is exactly levels 7 to 9, so the counters answer
+        String url = "/rest/players/count?race=GIANT&minExperience=2800&maxExperience=5499";
+        int before = Integer.parseInt(this.mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        this.mockMvc.perform(post("/rest/players/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"race\": \"GIANT\", \"experience\": 3000}"))
+                .andExpect(status().isOk());
+        int afterUpdate = Integer.parseInt(this.mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("Счётчик GET /rest/players/count не учитывает изменение игрока.", before + 1, afterUpdate);
+
+        this.mockMvc.perform(delete("/rest/players/1"))
+                .andExpect(status().isOk());
+        int afterDelete = Integer.parseInt(this.mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("Счётчик GET /rest/players/count не учитывает удаление игрока.", before, afterDelete);
+    }
+
+    //test12
+    @Test
+    public void getCountSeesChangesOfOtherProcesses() throws Exception {
+        String url = "/rest/players/count?race=GIANT";
+        int before = Integer.parseInt(this.mockMvc.perform(get(url))
+                .andReturn().getResponse().getContentAsString());
+
+        // what PlayerImportTool or another instance would commit
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("INSERT INTO player(id, name, title, race, profession, birthday, banned, experience, level, untilNextLevel) " +
+                "VALUES (100, 'Внешний', 'Импорт', 'GIANT', 'WARRIOR', '2005-05-05', false, 3000, 7, 600)");
+        jdbcTemplate.update("DELETE FROM player WHERE id = 7");
+        jdbcTemplate.update("UPDATE player_version SET version = version + 1 WHERE id = 1");
+
+        playerIndexes.refreshIfStale();
+        playerIndexes.refreshIfStale();
+
+        int after = Integer.parseInt(this.mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("GET /rest/players/count не учитывает изменения, сделанные другим процессом.", before, after);
+        int atLevel7 = Integer.parseInt(this.mockMvc.perform(get(url + "&minLevel=7&maxLevel=7"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("GET /rest/players/count не учитывает игрока, добавленного другим процессом.", 1, atLevel7);
+    }
+
+    //test13
+    @Test
+    public void getCountAnsweredByTheDatabaseBeforeRefresh() throws Exception {
+        String url = "/rest/players/count?race=GIANT";
+        int before = Integer.parseInt(this.mockMvc.perform(get(url))
+                .andReturn().getResponse().getContentAsString());
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("INSERT INTO player(id, name, title, race, profession, birthday, banned, experience, level, untilNextLevel) " +
+                "VALUES (100, 'Внешний', 'Импорт', 'GIANT', 'WARRIOR', '2005-05-05', false, 3000, 7, 600)");
+        jdbcTemplate.update("UPDATE player_version SET version = version + 1 WHERE id = 1");
+        // the first check only marks the aggregates stale, they are rebuilt after the second one
+        playerIndexes.refreshIfStale();
+
+        int after = Integer.parseInt(this.mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("GET /rest/players/count должен совпадать с GET /rest/players, пока агрегаты не обновлены.", before + 1, after);
+    }
+
+    //test14
+    @Test
+    public void getCountWithNullColumnsAfterRebuild() throws Exception {
+        int giants = Integer.parseInt(this.mockMvc.perform(get("/rest/players/count?race=GIANT"))
+                .andReturn().getResponse().getContentAsString());
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("INSERT INTO player(id, name, title, race, profession, birthday, banned, experience, level, untilNextLevel) " +
+                "VALUES (100, 'Пустой', NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL)");
+        jdbcTemplate.update("UPDATE player_version SET version = version + 1 WHERE id = 1");
+        playerIndexes.rebuild();
+
+        int all = Integer.parseInt(this.mockMvc.perform(get("/rest/players/count"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("GET /rest/players/count должен учитывать игроков с пустыми полями.", 41, all);
+
+        int giantsAfter = Integer.parseInt(this.mockMvc.perform(get("/rest/players/count?race=GIANT"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("Игрок без расы не должен попадать в фильтр по расе.", giants, giantsAfter);
+    }
+}
@@ -3,12 +3,20 @@ package com.game.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.game.controller.utils.PlayerInfoTest;
 import com.game.controller.utils.TestsHelper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.ResultActions;
 
+import javax.sql.DataSource;
+
 import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class GetPlayerTest extends AbstractTest {
@@ -47,4 +55,131 @@ public class GetPlayerTest extends AbstractTest {
         PlayerInfoTest actual = mapper.readValue(contentAsString, PlayerInfoTest.class);
         assertEquals("Вернулся неправильный объект при запросе GET /rest/players/{id}", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test5
+    @Test
+    public void getPlayerByIdIsCachedAndRefreshedOnUpdate() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/rest/players/14")).andExpect(status().isOk());
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+        mockMvc.perform(get("/rest/players/14")).andExpect(status().isOk());
+
+        assertEquals("Повторный запрос GET /rest/players/{id} должен обслуживаться из кэша", statementsAfterFirstRead, statistics.getPrepareStatementCount());
+        assertTrue("Повторный запрос GET /rest/players/{id} должен обслуживаться из кэша", statistics.getSecondLevelCacheHitCount() > 0);
+
+        mockMvc.perform(post("/rest/players/14")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"experience\": 100}"))
+                .andExpect(status().isOk());
+
+        String contentAsString = mockMvc.perform(get("/rest/players/14"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        PlayerInfoTest actual = new ObjectMapper().readValue(contentAsString, PlayerInfoTest.class);
+        assertEquals("Вернулся устаревший объект при запросе GET /rest/players/{id} после обновления", 100, actual.experience);
+    }
+
+    //test6
+    @Test
+    public void getPlayerByIdNotPositiveTest() throws Exception {
+        for (String id : new String[]{"-14", "+14", "00", "99999999999999999999"})
+            mockMvc.perform(get("/rest/players/" + id))
+                    .andExpect(status().isBadRequest());
+    }
+
+    //test7
+    @Test
+    public void getPlayerByIdNotModifiedTest() throws Exception {
+        String eTag = mockMvc.perform(get("/rest/players/14"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue("GET /rest/players/{id} должен возвращать ETag", eTag != null);
+
+        String contentAsString = mockMvc.perform(get("/rest/players/14").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Ответ 304 на GET /rest/players/{id} не должен содержать тело", "", contentAsString);
+
+        mockMvc.perform(post("/rest/players/14")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"experience\": 100}"))
+                .andExpect(status().isOk());
+
+        String changedETag = mockMvc.perform(get("/rest/players/14").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue("ETag должен меняться после POST /rest/players/{id}", !eTag.equals(changedETag));
+    }
+
+    //test8
+    @Test
+    public void getPlayerCachedAfterSaveMatchesDatabaseTest() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String created = mockMvc.perform(post("/rest/players")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestsHelper.NORMAL_JSON.replace("988059600000", "988059600123")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = mapper.readValue(created, PlayerInfoTest.class).id;
+        mockMvc.perform(post("/rest/players/14")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"birthday\": 988059600123}"))
+                .andExpect(status().isOk());
+
+        for (long playerId : new long[]{id, 14}) {
+            String cached = mockMvc.perform(get("/rest/players/" + playerId))
+                    .andReturn().getResponse().getContentAsString();
+
+            playerIndexes.rebuild();
+            String fromDatabase = mockMvc.perform(get("/rest/players/" + playerId))
+                    .andReturn().getResponse().getContentAsString();
+
+            assertEquals("GET /rest/players/{id} после сохранения должен возвращать дату рождения, как она хранится в базе данных",
+                    mapper.readValue(fromDatabase, PlayerInfoTest.class), mapper.readValue(cached, PlayerInfoTest.class));
+        }
+    }
+
+    //test9
+    @Test
+    public void getPlayerSeesChangesOfOtherProcessesTest() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        mockMvc.perform(get("/rest/players/14"))
+                .andExpect(status().isOk());
+
+        // what PlayerImportTool or another instance would commit; player 14 is cached as entity and as JSON
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("UPDATE player SET name = 'Изменён' WHERE id = 14");
+        jdbcTemplate.update("UPDATE player_version SET version = version + 1 WHERE id = 1");
+
+        playerIndexes.refreshIfStale();
+        playerIndexes.refreshIfStale();
+
+        String contentAsString = mockMvc.perform(get("/rest/players/14"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("GET /rest/players/{id} не учитывает изменения, сделанные другим процессом.",
+                "Изменён", mapper.readValue(contentAsString, PlayerInfoTest.class).name);
+    }
+
+    //test10
+    @Test
+    public void getPlayerAnsweredByTheDatabaseBeforeRefreshTest() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        mockMvc.perform(get("/rest/players/14"))
+                .andExpect(status().isOk());
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("UPDATE player SET name = 'Изменён' WHERE id = 14");
+        jdbcTemplate.update("UPDATE player_version SET version = version + 1 WHERE id = 1");
+        // the first check only marks the caches stale, they are rebuilt after the second one
+        playerIndexes.refreshIfStale();
+
+        String contentAsString = mockMvc.perform(get("/rest/players/14"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("GET /rest/players/{id} не учитывает изменения, сделанные другим процессом, до обновления кэша.",
+                "Изменён", mapper.readValue(contentAsString, PlayerInfoTest.class).name);
+    }
+}
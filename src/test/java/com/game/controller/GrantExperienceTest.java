@@ -0,0 +1,62 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GrantExperienceTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void grantExperienceTest() throws Exception {
+        String content = "[" +
+                "{\"id\": 1, \"experienceDelta\": 1653}," +
+                "{\"id\": 2, \"experience\": 0}," +
+                "{\"id\": 415, \"experienceDelta\": 10}," +
+                "{\"id\": 3, \"experienceDelta\": -805}," +
+                "{\"id\": 4, \"experience\": 10, \"experienceDelta\": 10}" +
+                "]";
+
+        String contentAsString = mockMvc.perform(post("/rest/players/experience")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(content))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode results = mapper.readTree(contentAsString);
+        int[] expectedStatuses = {200, 200, 404, 400, 400};
+        for (int i = 0; i < expectedStatuses.length; i++)
+            assertEquals("Неправильный статус элемента " + i + " в POST /rest/players/experience", expectedStatuses[i], results.get(i).get("status").asInt());
+
+        // 58347 + 1653 = 60000 experience is exactly level 34
+        PlayerInfoTest first = read(1);
+        assertEquals("Неправильный опыт после POST /rest/players/experience", 60000, first.experience);
+        assertEquals("Неправильный уровень после POST /rest/players/experience", 34, first.level);
+        assertEquals("Неправильный опыт до следующего уровня после POST /rest/players/experience", 3000, first.untilNextLevel);
+
+        PlayerInfoTest second = read(2);
+        assertEquals("Неправильный опыт после POST /rest/players/experience", 0, second.experience);
+        assertEquals("Неправильный уровень после POST /rest/players/experience", 0, second.level);
+        assertEquals("Неправильный опыт до следующего уровня после POST /rest/players/experience", 100, second.untilNextLevel);
+
+        assertEquals("Отклонённое изменение не должно применяться", 804, read(3).experience);
+        assertEquals("Отклонённое изменение не должно применяться", 44553, read(4).experience);
+    }
+
+    private PlayerInfoTest read(long id) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/players/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        return mapper.readValue(contentAsString, PlayerInfoTest.class);
+    }
+}
@@ -0,0 +1,164 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ImportPlayersTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void importPlayersNdjsonTest() throws Exception {
+        String content = TestsHelper.NORMAL_JSON + "\n" +
+                "{broken\n" +
+                "\n" +
+                TestsHelper.TOO_BIG_EXPERIENCE_JSON + "\n" +
+                TestsHelper.NORMAL_JSON + "\n";
+
+        String[] reports = importPlayers("NDJSON", 2, content);
+        assertEquals("Неправильное количество отчетов о прогрессе при POST /rest/players/import", 3, reports.length);
+
+        JsonNode first = mapper.readTree(reports[0]);
+        assertEquals("Неправильное количество созданных игроков в первом отчете POST /rest/players/import", 1, first.get("created").asInt());
+        assertEquals("Неправильный номер отклоненной строки в POST /rest/players/import", 2, first.get("rejectedLines").get(0).get("line").asInt());
+
+        JsonNode last = mapper.readTree(reports[2]);
+        assertTrue("Последний отчет POST /rest/players/import должен быть завершающим", last.get("done").asBoolean());
+        assertEquals("Неправильное количество созданных игроков после POST /rest/players/import", 2, last.get("created").asInt());
+        assertEquals("Неправильное количество отклоненных строк после POST /rest/players/import", 2, last.get("rejected").asInt());
+        assertEquals("Неправильное количество прочитанных строк после POST /rest/players/import", 5, last.get("lines").asInt());
+
+        String count = mockMvc.perform(get("/rest/players/count"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Неправильное количество игроков после POST /rest/players/import", "42", count);
+    }
+
+    //test2
+    @Test
+    public void importPlayersCsvTest() throws Exception {
+        String content = "id,name,title,race,profession,birthday,banned,experience,level,untilNextLevel\n" +
+                ",Амарылис,\"Прозелит, \"\"старший\"\"\",HUMAN,CLERIC,988059600000,false,63986,,\n" +
+                ",Амарылис,Прозелит,HUMAN,CLERIC,988059600000,false,100000000,,\n" +
+                ",Амарылис,Прозелит,ORC,CLERIC,not-a-date,false,63986,,\n";
+
+        String[] reports = importPlayers("CSV", 10, content);
+        JsonNode last = mapper.readTree(reports[reports.length - 1]);
+        assertEquals("Неправильное количество созданных игроков после POST /rest/players/import", 1, last.get("created").asInt());
+        assertEquals("Неправильное количество отклоненных строк после POST /rest/players/import", 2, last.get("rejected").asInt());
+
+        String players = mockMvc.perform(get("/rest/players?title=старший"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Неправильно разобрано поле в кавычках при POST /rest/players/import", "Прозелит, \"старший\"",
+                mapper.readTree(players).get(0).get("title").asText());
+    }
+
+    //test3
+    @Test
+    public void importPlayersWrongChunkSizeTest() throws Exception {
+        mockMvc.perform(post("/rest/players/import?chunkSize=0")
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test4
+    @Test
+    public void importPlayersNdjsonExportRoundTripTest() throws Exception {
+        String export = mockMvc.perform(get("/rest/players/export?race=ELF&format=NDJSON"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<PlayerInfoTest> exported = readNdjson(export);
+
+        String[] reports = importPlayers("NDJSON", 3, export);
+        JsonNode last = mapper.readTree(reports[reports.length - 1]);
+        assertEquals("Неправильное количество созданных игроков при импорте выгрузки", exported.size(), last.get("created").asInt());
+        assertEquals("Неправильное количество отклоненных строк при импорте выгрузки", 0, last.get("rejected").asInt());
+
+        List<PlayerInfoTest> all = readNdjson(mockMvc.perform(get("/rest/players/export?race=ELF&format=NDJSON"))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("Исходные игроки изменились после импорта выгрузки", exported, all.subList(0, exported.size()));
+
+        List<PlayerInfoTest> imported = all.subList(exported.size(), all.size());
+        for (int i = 0; i < exported.size(); i++) {
+            assertTrue("Импортированный игрок должен получить новый id", imported.get(i).id > exported.get(exported.size() - 1).id);
+            imported.get(i).id = exported.get(i).id;
+        }
+        assertEquals("Импортированные игроки не совпадают с выгрузкой", exported, imported);
+    }
+
+    //test5
+    @Test
+    public void importPlayersCsvExportRoundTripTest() throws Exception {
+        mockMvc.perform(post("/rest/players")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestsHelper.NORMAL_JSON.replace("Прозелит", "Прозелит,\\n\\\"старший\\\"")))
+                .andExpect(status().isOk());
+
+        String humans = mockMvc.perform(get("/rest/players/count?race=HUMAN"))
+                .andReturn().getResponse().getContentAsString();
+        String export = mockMvc.perform(get("/rest/players/export?race=HUMAN&format=CSV"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] reports = importPlayers("CSV", 2, export);
+        JsonNode last = mapper.readTree(reports[reports.length - 1]);
+        assertEquals("Неправильное количество созданных игроков при импорте выгрузки CSV", humans, last.get("created").asText());
+        assertEquals("Неправильное количество отклоненных строк при импорте выгрузки CSV", 0, last.get("rejected").asInt());
+
+        List<PlayerInfoTest> copies = readNdjson(mockMvc.perform(get("/rest/players/export?name=Амарылис&format=NDJSON"))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("Неправильное количество игроков после импорта выгрузки CSV", 2, copies.size());
+        assertEquals("Перевод строки в поле в кавычках не пережил импорт выгрузки CSV", "Прозелит,\n\"старший\"", copies.get(1).title);
+    }
+
+    //test6
+    @Test
+    public void importPlayersMalformedLinesReportedPerChunkTest() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5; i++)
+            content.append("{broken\n");
+        content.append(TestsHelper.NORMAL_JSON).append("\n");
+
+        String[] reports = importPlayers("NDJSON", 2, content.toString());
+        assertEquals("Неправильное количество отчетов о прогрессе при POST /rest/players/import", 4, reports.length);
+        for (int i = 0; i < 2; i++) {
+            JsonNode report = mapper.readTree(reports[i]);
+            assertEquals("Отчет должен приходить после каждых chunkSize строк, даже некорректных", 2, report.get("rejectedLines").size());
+            assertEquals("Неправильное количество прочитанных строк в отчете POST /rest/players/import", 2L * (i + 1), report.get("lines").asLong());
+        }
+
+        JsonNode last = mapper.readTree(reports[3]);
+        assertEquals("Неправильное количество созданных игроков после POST /rest/players/import", 1, last.get("created").asInt());
+        assertEquals("Неправильное количество отклоненных строк после POST /rest/players/import", 5, last.get("rejected").asInt());
+    }
+
+    private List<PlayerInfoTest> readNdjson(String content) throws Exception {
+        List<PlayerInfoTest> players = new ArrayList<>();
+        for (String line : content.split("\n"))
+            players.add(mapper.readValue(line, PlayerInfoTest.class));
+
+        return players;
+    }
+
+    private String[] importPlayers(String format, int chunkSize, String content) throws Exception {
+        return mockMvc.perform(post("/rest/players/import?format=" + format + "&chunkSize=" + chunkSize)
+                .content(content.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+    }
+}
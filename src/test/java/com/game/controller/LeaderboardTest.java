@@ -0,0 +1,170 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class LeaderboardTest extends AbstractTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void rankOfEveryPlayerTest() throws Exception {
+        List<PlayerInfoTest> expected = ranking();
+        for (int i = 0; i < expected.size(); i++) {
+            JsonNode entry = read("/rest/players/" + expected.get(i).id + "/rank");
+            assertEquals("Неправильное место игрока " + expected.get(i).id + " при запросе GET /rest/players/{id}/rank.",
+                    i + 1L, entry.get("rank").asLong());
+            assertEquals("Неправильный опыт при запросе GET /rest/players/{id}/rank.",
+                    (int) expected.get(i).experience, entry.get("experience").asInt());
+        }
+    }
+
+    //test2
+    @Test
+    public void topTest() throws Exception {
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/leaderboard.",
+                ids(ranking().subList(0, 10)), ids(read("/rest/leaderboard")));
+    }
+
+    //test3
+    @Test
+    public void aroundTest() throws Exception {
+        List<PlayerInfoTest> expected = ranking();
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/leaderboard с параметром around.",
+                ids(expected.subList(18, 23)), ids(read("/rest/leaderboard?around=" + expected.get(20).id + "&size=5")));
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/leaderboard с параметром around для лидера.",
+                ids(expected.subList(0, 5)), ids(read("/rest/leaderboard?around=" + expected.get(0).id + "&size=5")));
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/leaderboard с параметром around для последнего места.",
+                ids(expected.subList(expected.size() - 5, expected.size())),
+                ids(read("/rest/leaderboard?around=" + expected.get(expected.size() - 1).id + "&size=5")));
+    }
+
+    //test4
+    @Test
+    public void rankFollowsUpdatesAndDeletesTest() throws Exception {
+        List<PlayerInfoTest> expected = ranking();
+        PlayerInfoTest leader = expected.get(0);
+        PlayerInfoTest last = expected.get(expected.size() - 1);
+
+        mockMvc.perform(post("/rest/players/" + last.id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"experience\": " + (leader.experience + 1) + "}"))
+                .andExpect(status().isOk());
+        assertEquals("Место игрока не изменилось после изменения опыта.",
+                1L, read("/rest/players/" + last.id + "/rank").get("rank").asLong());
+        assertEquals("Место бывшего лидера не изменилось после изменения опыта другого игрока.",
+                2L, read("/rest/players/" + leader.id + "/rank").get("rank").asLong());
+
+        mockMvc.perform(delete("/rest/players/" + last.id))
+                .andExpect(status().isOk());
+        assertEquals("Место бывшего лидера не изменилось после удаления игрока.",
+                1L, read("/rest/players/" + leader.id + "/rank").get("rank").asLong());
+        mockMvc.perform(get("/rest/players/" + last.id + "/rank"))
+                .andExpect(status().isNotFound());
+    }
+
+    //test5
+    @Test
+    public void invalidRequestsTest() throws Exception {
+        mockMvc.perform(get("/rest/players/0/rank")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/players/410/rank")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/rest/leaderboard?around=410")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/rest/leaderboard?around=abc")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/leaderboard?size=0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/leaderboard?size=101")).andExpect(status().isBadRequest());
+    }
+
+    //test6
+    @Test
+    public void changesOfOtherProcessesTest() throws Exception {
+        // what PlayerImportTool or another instance would commit
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("INSERT INTO player(id, name, title, race, profession, birthday, banned, experience, level, untilNextLevel) " +
+                "VALUES (100, 'Внешний', 'Импорт', 'GIANT', 'WARRIOR', '2005-05-05', false, 9000000, 0, 0)");
+        jdbcTemplate.update("UPDATE player SET experience = 0 WHERE id = " + ranking().get(0).id);
+        jdbcTemplate.update("UPDATE player_version SET version = version + 1 WHERE id = 1");
+
+        playerIndexes.refreshIfStale();
+        playerIndexes.refreshIfStale();
+
+        assertEquals("Игрок, добавленный другим процессом, должен получить место.",
+                1L, read("/rest/players/100/rank").get("rank").asLong());
+        assertEquals("Изменение опыта другим процессом должно менять место игрока.",
+                41L, read("/rest/players/" + ranking().get(0).id + "/rank").get("rank").asLong());
+    }
+
+    //test7
+    @Test
+    public void answeredByTheDatabaseBeforeRefreshTest() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("INSERT INTO player(id, name, title, race, profession, birthday, banned, experience, level, untilNextLevel) " +
+                "VALUES (100, 'Внешний', 'Импорт', 'GIANT', 'WARRIOR', '2005-05-05', false, 9000000, 0, 0)");
+        jdbcTemplate.update("UPDATE player_version SET version = version + 1 WHERE id = 1");
+
+        // the first check only marks the board stale, it is rebuilt after the second one
+        playerIndexes.refreshIfStale();
+
+        List<Long> expected = new ArrayList<>();
+        expected.add(100L);
+        expected.addAll(ids(ranking()));
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals("Неправильное место игрока " + expected.get(i) + " при запросе GET /rest/players/{id}/rank до обновления.",
+                    i + 1L, read("/rest/players/" + expected.get(i) + "/rank").get("rank").asLong());
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/leaderboard до обновления.",
+                expected.subList(0, 10), ids(read("/rest/leaderboard")));
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/leaderboard с параметром around до обновления.",
+                expected.subList(18, 23), ids(read("/rest/leaderboard?around=" + expected.get(20) + "&size=5")));
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/leaderboard с параметром around для лидера до обновления.",
+                expected.subList(0, 5), ids(read("/rest/leaderboard?around=100&size=5")));
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/leaderboard с параметром around для последнего места до обновления.",
+                expected.subList(expected.size() - 5, expected.size()),
+                ids(read("/rest/leaderboard?around=" + expected.get(expected.size() - 1) + "&size=5")));
+        mockMvc.perform(get("/rest/players/410/rank")).andExpect(status().isNotFound());
+    }
+
+    private List<PlayerInfoTest> ranking() {
+        List<PlayerInfoTest> players = new ArrayList<>(testsHelper.getAllPlayers());
+        players.sort(Comparator.comparing((PlayerInfoTest p) -> -p.experience).thenComparing(p -> p.id));
+        return players;
+    }
+
+    private JsonNode read(String url) throws Exception {
+        return mapper.readTree(mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static List<Long> ids(List<PlayerInfoTest> players) {
+        List<Long> ids = new ArrayList<>();
+        for (PlayerInfoTest player : players)
+            ids.add(player.id);
+        return ids;
+    }
+
+    private static List<Long> ids(JsonNode entries) {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode entry : entries)
+            ids.add(entry.get("id").asLong());
+        return ids;
+    }
+}
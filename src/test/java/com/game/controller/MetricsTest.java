@@ -0,0 +1,34 @@
+package com.game.controller;
+
+import org.junit.Test;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class MetricsTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void metricsTest() throws Exception {
+        mockMvc.perform(get("/rest/players/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/rest/players?race=HUMAN")).andExpect(status().isOk());
+
+        String metrics = mockMvc.perform(get("/rest/metrics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue("Нет времени ответа GET /rest/players/{id} в GET /rest/metrics",
+                metrics.contains("player_http_request_seconds_count{route=\"GET /rest/players/{id}\"}"));
+        assertTrue("Нет времени ответа GET /rest/players в GET /rest/metrics",
+                metrics.contains("player_http_request_seconds{route=\"GET /rest/players\",quantile=\"0.99\"}"));
+        assertTrue("Нет количества SQL-запросов GET /rest/players в GET /rest/metrics",
+                metrics.matches("(?s).*player_http_request_sql_statements_sum\\{route=\"GET /rest/players\"} [1-9].*"));
+        assertTrue("Нет времени вызова методов репозитория в GET /rest/metrics",
+                metrics.contains("player_repository_call_seconds_count{method=\"playerRepository.findSlice\"}"));
+        assertTrue("Нет времени выполнения SQL в GET /rest/metrics",
+                metrics.matches("(?s).*player_sql_execution_seconds_count [1-9].*"));
+        assertTrue("Нет времени ожидания соединения в GET /rest/metrics",
+                metrics.matches("(?s).*player_jdbc_pool_wait_seconds_count [1-9].*"));
+    }
+}
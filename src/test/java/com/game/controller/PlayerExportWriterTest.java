@@ -0,0 +1,80 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.entity.Player;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlayerExportWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void finishEndsTheOutputTest() throws Exception {
+        for (ExportFormat format : ExportFormat.values()) {
+            ClosingStream out = new ClosingStream();
+            PlayerExportWriter writer = PlayerExportWriter.create(format, out, objectMapper, objectMapper);
+            writer.accept(player(1L));
+            writer.accept(player(2L));
+            writer.finish();
+
+            assertTrue("Выгрузка в формате " + format + " должна закрывать поток после последнего игрока", out.closed);
+        }
+
+        ClosingStream out = new ClosingStream();
+        PlayerExportWriter writer = PlayerExportWriter.create(ExportFormat.JSON, out, objectMapper, objectMapper);
+        writer.accept(player(1L));
+        writer.accept(player(2L));
+        writer.finish();
+        assertEquals("Выгрузка в формате JSON должна быть полным массивом", 2, objectMapper.readTree(out.toString()).size());
+    }
+
+    //test2
+    @Test
+    public void unfinishedOutputHasNoEndTest() throws Exception {
+        for (ExportFormat format : ExportFormat.values()) {
+            ClosingStream out = new ClosingStream();
+            PlayerExportWriter writer = PlayerExportWriter.create(format, out, objectMapper, objectMapper);
+            writer.accept(player(1L));
+
+            assertFalse("Прерванная выгрузка в формате " + format + " не должна закрывать поток", out.closed);
+            assertFalse("Прерванная выгрузка в формате " + format + " не должна выглядеть завершенной",
+                    out.toString().endsWith("]"));
+        }
+    }
+
+    private static Player player(Long id) {
+        Player player = new Player();
+        player.setId(id);
+        player.setName("Игрок" + id);
+        return player;
+    }
+
+    private static class ClosingStream extends FilterOutputStream {
+        boolean closed;
+
+        ClosingStream() {
+            super(new ByteArrayOutputStream());
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+
+        @Override
+        public String toString() {
+            return new String(((ByteArrayOutputStream) out).toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.game.controller;
+
+import com.game.controller.utils.TestsHelper;
+import com.game.entity.Player;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertFalse;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+public class StatementCountTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void getPlayerTest() throws Exception {
+        assertEquals("GET /rest/players/{id}", 1L, statementsFor(get("/rest/players/14")));
+        assertEquals("GET /rest/players/{id} для несуществующего игрока", 1L, statementsFor(get("/rest/players/410")));
+    }
+
+    //test2
+    @Test
+    public void updatePlayerTest() throws Exception {
+        // every write also increments player_version
+        assertEquals("POST /rest/players/{id}", 3L, statementsFor(post("/rest/players/14")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestsHelper.NORMAL_JSON)));
+        assertEquals("POST /rest/players/{id} для несуществующего игрока", 1L, statementsFor(post("/rest/players/415")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestsHelper.NORMAL_JSON)));
+    }
+
+    //test3
+    @Test
+    public void deletePlayerTest() throws Exception {
+        assertEquals("DELETE /rest/players/{id}", 2L, statementsFor(delete("/rest/players/14")));
+        assertEquals("DELETE /rest/players/{id} для несуществующего игрока", 1L, statementsFor(delete("/rest/players/426")));
+    }
+
+    //test4
+    @Test
+    public void createPlayerTest() throws Exception {
+        assertEquals("POST /rest/players", 2L, statementsFor(post("/rest/players")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestsHelper.NORMAL_JSON)));
+    }
+
+    //test5
+    @Test
+    public void readAllAndCountTest() throws Exception {
+        assertEquals("GET /rest/players", 1L, statementsFor(get("/rest/players?race=ELF&pageNumber=1")));
+        assertEquals("GET /rest/players/count", 0L, statementsFor(get("/rest/players/count?race=ELF")));
+        assertEquals("GET /rest/players/count с параметром after", 1L, statementsFor(get("/rest/players/count?race=ELF&after=1104530400000")));
+        assertEquals("GET /rest/players с параметрами name и title", 1L, statementsFor(get("/rest/players?name=а&title=а")));
+    }
+
+    //test6
+    @Test
+    public void deleteKeepsOtherPlayersCachedTest() throws Exception {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        mockMvc.perform(get("/rest/players/14"));
+        mockMvc.perform(get("/rest/players/15"));
+
+        mockMvc.perform(delete("/rest/players/15"));
+
+        assertTrue("DELETE /rest/players/{id} не должен вытеснять из кэша других игроков",
+                sessionFactory.getCache().containsEntity(Player.class, 14L));
+    }
+
+    //test7
+    @Test
+    public void deleteEvictsDeletedPlayerAndCachedQueriesTest() throws Exception {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        mockMvc.perform(get("/rest/players/15"));
+        mockMvc.perform(get("/rest/players?race=GIANT&pageSize=20"));
+
+        mockMvc.perform(delete("/rest/players/15"));
+
+        assertFalse("DELETE /rest/players/{id} должен вытеснять из кэша удалённого игрока",
+                sessionFactory.getCache().containsEntity(Player.class, 15L));
+        String content = mockMvc.perform(get("/rest/players?race=GIANT&pageSize=20"))
+                .andReturn().getResponse().getContentAsString();
+        assertFalse("Закэшированный запрос не должен возвращать удалённого игрока", content.contains("Грон"));
+    }
+
+    /**
+     * Number of SQL statements a request sends to the database, starting from cold caches.
+     */
+    private long statementsFor(RequestBuilder request) throws Exception {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(request);
+
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,114 @@
+package com.game.index;
+
+import com.game.entity.Player;
+import com.game.entity.PlayerOrder;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlayerColumnStoreTest {
+
+    private final Random random = new Random(42);
+
+    //test1
+    @Test
+    public void bitmapsFollowInsertsUpdatesAndDeletesTest() {
+        PlayerColumnStore store = new PlayerColumnStore(true);
+        Map<Long, Player> players = new TreeMap<>();
+
+        // every other id first, so later inserts land between existing rows and across word boundaries
+        for (long id = 2; id <= 400; id += 2)
+            players.put(id, randomPlayer(id));
+        store.rebuild(new ArrayList<>(players.values()));
+
+        for (int i = 0; i < 2000; i++) {
+            long id = 1 + random.nextInt(400);
+            if (random.nextInt(3) == 0) {
+                players.remove(id);
+                store.onDelete(id);
+            } else {
+                Player player = randomPlayer(id);
+                players.put(id, player);
+                store.onSave(player);
+            }
+
+            if (i % 100 == 0)
+                assertMatches(players, store);
+        }
+        assertMatches(players, store);
+    }
+
+    //test2
+    @Test
+    public void playersWithNullsAreLeftOutTest() {
+        PlayerColumnStore store = new PlayerColumnStore(true);
+        ColumnFilter all = new ColumnFilter(null, null, null, null, null, null, null, null, null);
+        Player incomplete = randomPlayer(2);
+        incomplete.setLevel(null);
+        store.rebuild(new ArrayList<>(Arrays.asList(randomPlayer(1), incomplete)));
+
+        assertFalse("Хранилище с игроком без уровня не должно считаться полным", store.isComplete());
+        assertEquals("Игрок без уровня не должен попадать в хранилище", 1, store.count(all));
+
+        store.onSave(randomPlayer(2));
+        assertTrue("После исправления игрока хранилище должно стать полным", store.isComplete());
+        assertEquals("Исправленный игрок должен попасть в хранилище", 2, store.count(all));
+
+        incomplete.setRace(null);
+        store.onSave(incomplete);
+        assertFalse("Хранилище с игроком без расы не должно считаться полным", store.isComplete());
+        store.onDelete(2L);
+        assertTrue("После удаления игрока хранилище должно стать полным", store.isComplete());
+        assertEquals("Неправильное количество игроков после удаления", 1, store.count(all));
+    }
+
+    private void assertMatches(Map<Long, Player> players, PlayerColumnStore store) {
+        for (Race race : Race.values()) {
+            for (Profession profession : Profession.values()) {
+                for (Boolean banned : new Boolean[]{null, true, false}) {
+                    List<Long> expected = new ArrayList<>();
+                    for (Player player : players.values())
+                        if (player.getRace() == race && player.getProfession() == profession
+                                && (banned == null || banned.equals(player.getBanned())))
+                            expected.add(player.getId());
+
+                    ColumnFilter filter = new ColumnFilter(race, profession, null, null, banned, null, null, null, null);
+                    List<Long> actual = new ArrayList<>();
+                    for (Player player : store.find(filter, PlayerOrder.ID, 0, Integer.MAX_VALUE))
+                        actual.add(player.getId());
+
+                    String message = "Неправильный результат фильтра " + race + ", " + profession + ", banned=" + banned;
+                    assertEquals(message, expected, actual);
+                    assertEquals(message, expected.size(), store.count(filter));
+                }
+            }
+        }
+    }
+
+    private Player randomPlayer(long id) {
+        Player player = new Player();
+        player.setId(id);
+        player.setName("Игрок" + id);
+        player.setTitle("Титул");
+        player.setRace(Race.values()[random.nextInt(Race.values().length)]);
+        player.setProfession(Profession.values()[random.nextInt(Profession.values().length)]);
+        player.setBirthday(new Date(946684800000L + random.nextInt(1_000_000) * 1_000_000L));
+        player.setBanned(random.nextBoolean());
+        player.setExperience(random.nextInt(100_000));
+        player.setLevel(random.nextInt(40));
+        player.setUntilNextLevel(random.nextInt(1000));
+        return player;
+    }
+}
@@ -0,0 +1,46 @@
+package com.game.index;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class PlayerJsonCacheTest {
+
+    //test1
+    @Test
+    public void playersRequestedAfterTheCacheFilledUpAreCachedTest() throws Exception {
+        PlayerJsonCache cache = new PlayerJsonCache(10, Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+        PlayerJsonCache.JsonLoader loader = id -> {
+            loads.incrementAndGet();
+            return ("{\"id\":" + id + "}").getBytes();
+        };
+
+        for (long id = 1; id <= 100; id++)
+            cache.getOrLoad(id, loader);
+
+        loads.set(0);
+        for (int i = 0; i < 20; i++)
+            cache.getOrLoad(500L, loader);
+
+        assertEquals("Часто запрашиваемый игрок должен попадать в кэш и после его заполнения", 1, loads.get());
+    }
+
+    //test2
+    @Test
+    public void saveDuringLoadDiscardsLoadedJsonTest() throws Exception {
+        PlayerJsonCache cache = new PlayerJsonCache(10, Runnable::run);
+
+        byte[] stale = cache.getOrLoad(1L, id -> {
+            cache.onDelete(id);
+            return "{\"id\":1,\"name\":\"old\"}".getBytes();
+        }).getJson();
+        byte[] fresh = cache.getOrLoad(1L, id -> "{\"id\":1,\"name\":\"new\"}".getBytes()).getJson();
+
+        assertArrayEquals("Удаление во время загрузки должно отбрасывать загруженный JSON", "{\"id\":1,\"name\":\"new\"}".getBytes(), fresh);
+        assertArrayEquals("Загрузка должна возвращать прочитанный JSON", "{\"id\":1,\"name\":\"old\"}".getBytes(), stale);
+    }
+}
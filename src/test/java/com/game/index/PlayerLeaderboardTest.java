@@ -0,0 +1,87 @@
+package com.game.index;
+
+import com.game.entity.Player;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PlayerLeaderboardTest {
+
+    private final Random random = new Random(42);
+
+    //test1
+    @Test
+    public void ranksFollowSavesAndDeletesTest() {
+        PlayerLeaderboard leaderboard = new PlayerLeaderboard();
+        Map<Long, Player> players = new HashMap<>();
+
+        for (long id = 1; id <= 300; id++)
+            players.put(id, randomPlayer(id));
+        leaderboard.rebuild(new ArrayList<>(players.values()));
+
+        for (int i = 0; i < 3000; i++) {
+            long id = 1 + random.nextInt(400);
+            if (random.nextInt(4) == 0) {
+                players.remove(id);
+                leaderboard.onDelete(id);
+            } else {
+                Player player = randomPlayer(id);
+                players.put(id, player);
+                leaderboard.onSave(player);
+            }
+
+            if (i % 200 == 0)
+                assertRanks(players, leaderboard);
+        }
+        assertRanks(players, leaderboard);
+        assertNull("Для несуществующего игрока не должно быть места", leaderboard.rank(1000L));
+    }
+
+    //test2
+    @Test
+    public void playersWithoutExperienceAreNotRankedTest() {
+        PlayerLeaderboard leaderboard = new PlayerLeaderboard();
+        Player unranked = randomPlayer(2);
+        unranked.setExperience(null);
+        unranked.setLevel(null);
+        leaderboard.rebuild(new ArrayList<>(Arrays.asList(randomPlayer(1), unranked, randomPlayer(3))));
+
+        assertEquals("Игрок без опыта не должен попадать в таблицу лидеров", 2, leaderboard.size());
+        assertNull("У игрока без опыта не должно быть места", leaderboard.rank(2L));
+
+        leaderboard.onSave(unranked);
+        assertEquals("Игрок без опыта не должен попадать в таблицу лидеров после сохранения", 2, leaderboard.size());
+    }
+
+    private void assertRanks(Map<Long, Player> players, PlayerLeaderboard leaderboard) {
+        List<Player> expected = new ArrayList<>(players.values());
+        // few distinct values, so ties are common
+        expected.sort(Comparator.comparing((Player p) -> -p.getExperience()).thenComparing(Player::getId));
+
+        assertEquals("Неправильный размер таблицы лидеров", expected.size(), leaderboard.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals("Неправильное место игрока " + expected.get(i).getId(), i + 1, leaderboard.rank(expected.get(i).getId()).getRank());
+
+        List<LeaderboardEntry> all = leaderboard.range(1, expected.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals("Неправильный игрок на месте " + (i + 1), expected.get(i).getId(), all.get(i).getId());
+    }
+
+    private Player randomPlayer(long id) {
+        Player player = new Player();
+        player.setId(id);
+        player.setName("Игрок" + id);
+        player.setExperience(random.nextInt(50) * 1000);
+        player.setLevel(0);
+        return player;
+    }
+}
@@ -0,0 +1,52 @@
+package com.game.index;
+
+import com.game.entity.Player;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class PlayerTextIndexTest {
+
+    //test1
+    @Test
+    public void accentsAreFoldedLikeTheMySqlCollationTest() {
+        PlayerTextIndex index = new PlayerTextIndex();
+        index.rebuild(Arrays.asList(player(1L, "Amélie", "Straße"), player(2L, "Ámelie", "Strase"), player(3L, "Emil", "Weg")));
+
+        assertEquals("Поиск по имени без ударения должен находить имена с ударением",
+                new HashSet<>(Arrays.asList(1L, 2L)), index.nameCandidates("ame"));
+        assertEquals("Поиск по имени с ударением должен находить имена без ударения",
+                new HashSet<>(Arrays.asList(1L, 2L)), index.nameCandidates("AMÉLIE"));
+        assertEquals("ß должна совпадать с s",
+                new HashSet<>(Arrays.asList(1L, 2L)), index.titleCandidates("STRAß"));
+    }
+
+    //test2
+    @Test
+    public void savedAndDeletedPlayersAreFoldedTooTest() {
+        PlayerTextIndex index = new PlayerTextIndex();
+        index.rebuild(Collections.emptyList());
+
+        index.onSave(player(1L, "Zoë", "Ёлка"));
+        assertEquals("Сохранённый игрок должен находиться без учёта ударения",
+                Collections.singleton(1L), index.nameCandidates("zoe"));
+        assertEquals("Ё должна совпадать с е",
+                Collections.singleton(1L), index.titleCandidates("елк"));
+
+        index.onDelete(1L);
+        assertEquals("Удалённый игрок не должен находиться",
+                Collections.emptySet(), index.nameCandidates("zoe"));
+    }
+
+    private Player player(Long id, String name, String title) {
+        Player player = new Player();
+        player.setId(id);
+        player.setName(name);
+        player.setTitle(title);
+        return player;
+    }
+}
@@ -0,0 +1,34 @@
+package com.game.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    //test1
+    @Test
+    public void bucketBoundsTest() {
+        for (long value : new long[]{0, 1, 127, 128, 129, 255, 256, 1_000_000, 123_456_789_012L, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue("Значение " + value + " меньше нижней границы своего интервала", LatencyHistogram.lowerBound(bucket) <= value);
+            if (value < Long.MAX_VALUE)
+                assertTrue("Значение " + value + " не меньше нижней границы следующего интервала", value < LatencyHistogram.lowerBound(bucket + 1));
+        }
+    }
+
+    //test2
+    @Test
+    public void quantilesTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++)
+            histogram.record(value * 1000);
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000L, histogram.getMax());
+        assertEquals(50_000_000, histogram.valueAtQuantile(0.5), 50_000_000 * 0.016);
+        assertEquals(99_000_000, histogram.valueAtQuantile(0.99), 99_000_000 * 0.016);
+        assertEquals(99_900_000, histogram.valueAtQuantile(0.999), 99_900_000 * 0.016);
+    }
+}
@@ -0,0 +1,125 @@
+package com.game.repository;
+
+import com.game.config.DataConfig;
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import com.game.metrics.MetricsRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the table generator with the pooled-lo optimizer of the prod profile, which the controller tests replace
+ * with one id at a time.
+ */
+public class PlayerIdGeneratorTest {
+
+    private static final int POOL_SIZE = 3;
+
+    private AnnotationConfigApplicationContext context;
+    private PlayerRepository playerRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setup() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("db.id.optimizer", "pooled-lo");
+        properties.put("db.pool.minimumIdle", "1");
+        properties.put("db.pool.maximumPoolSize", String.valueOf(POOL_SIZE));
+        // a create waiting for a connection that never comes fails the test instead of stalling it for 30s
+        properties.put("db.pool.connectionTimeout", "5000");
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles("dev");
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        context.register(DataConfig.class, MetricsRegistry.class);
+        context.refresh();
+
+        playerRepository = context.getBean(PlayerRepository.class);
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+    }
+
+    @After
+    public void close() {
+        context.close();
+    }
+
+    //test1
+    @Test
+    public void idsAreTakenInBlocksTest() {
+        List<Player> players = players(120);
+        playerRepository.insertAll(players);
+
+        for (int i = 0; i < players.size(); i++)
+            assertEquals("Идентификаторы должны выдаваться подряд после существующих игроков", 41L + i, (long) players.get(i).getId());
+        assertEquals("id_generator должен хранить начало следующего свободного блока",
+                191L, (long) jdbcTemplate.queryForObject("SELECT next_val FROM id_generator WHERE sequence_name = 'player'", Long.class));
+    }
+
+    //test2
+    @Test
+    public void concurrentCreatesLeaveConnectionsForTheGeneratorTest() throws Exception {
+        // as many creating threads as the pool allows next to the generator's connection, like db.executor.poolSize
+        int threads = POOL_SIZE - 1;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<Player>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads * 5; i++) {
+                futures.add(executor.submit(() -> {
+                    List<Player> players = players(70);
+                    playerRepository.insertAll(players);
+                    return players;
+                }));
+            }
+
+            Set<Long> ids = new HashSet<>();
+            for (Future<List<Player>> future : futures)
+                for (Player player : future.get(60, TimeUnit.SECONDS))
+                    ids.add(player.getId());
+
+            assertEquals("Идентификаторы созданных игроков не должны повторяться", threads * 5 * 70, ids.size());
+            assertEquals("Неправильное количество игроков после создания",
+                    40 + threads * 5 * 70, (int) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM player", Integer.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Player> players(int count) {
+        List<Player> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Player player = new Player();
+            player.setName("Игрок" + i);
+            player.setTitle("Титул");
+            player.setRace(Race.HUMAN);
+            player.setProfession(Profession.WARRIOR);
+            player.setBirthday(new Date(988059600000L));
+            player.setBanned(false);
+            player.setExperience(1000);
+            player.setLevel(3);
+            player.setUntilNextLevel(600);
+            players.add(player);
+        }
+
+        return players;
+    }
+}
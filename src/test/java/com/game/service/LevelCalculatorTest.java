@@ -0,0 +1,32 @@
+package com.game.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LevelCalculatorTest {
+
+    private final LevelCalculator levelCalculator = new LevelCalculator();
+
+    //test1
+    @Test
+    public void levelMatchesFormulaTest() {
+        for (int exp = 0; exp <= LevelCalculator.MAX_EXPERIENCE; exp++) {
+            int expected = (int) ((Math.sqrt(2500 + 200 * exp) - 50) / 100);
+            int level = levelCalculator.level(exp);
+            if (level != expected)
+                assertEquals("Неправильно рассчитан уровень для опыта " + exp, expected, level);
+
+            int expectedUntilNextLevel = 50 * (expected + 1) * (expected + 2) - exp;
+            int untilNextLevel = levelCalculator.untilNextLevel(level, exp);
+            if (untilNextLevel != expectedUntilNextLevel)
+                assertEquals("Неправильно рассчитан опыт до следующего уровня для опыта " + exp, expectedUntilNextLevel, untilNextLevel);
+        }
+    }
+
+    //test2
+    @Test(expected = IllegalArgumentException.class)
+    public void experienceOutOfRangeTest() {
+        levelCalculator.level(LevelCalculator.MAX_EXPERIENCE + 1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.game.tools;
+
+import com.game.controller.utils.TestsHelper;
+import com.game.index.PlayerIndex;
+import com.game.service.ImportFormat;
+import com.game.service.ImportProgress;
+import com.game.service.PlayerImporter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.ScheduledAnnotationBeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PlayerImportToolTest {
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setup() {
+        context = PlayerImportTool.createContext("dev");
+    }
+
+    @After
+    public void close() {
+        context.close();
+    }
+
+    //test1
+    @Test
+    public void toolStartsNeitherIndexesNorScheduledRefreshTest() {
+        assertTrue("PlayerImportTool не должен загружать индексы игроков",
+                context.getBeansOfType(PlayerIndex.class).isEmpty());
+        assertTrue("PlayerImportTool не должен запускать периодическое обновление индексов",
+                context.getBeansOfType(ScheduledAnnotationBeanPostProcessor.class).isEmpty());
+    }
+
+    //test2
+    @Test
+    public void importThroughToolConfigTest() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        long version = jdbcTemplate.queryForObject("SELECT version FROM player_version WHERE id = 1", Long.class);
+
+        AtomicReference<ImportProgress> last = new AtomicReference<>();
+        context.getBean(PlayerImporter.class).importPlayers(
+                new StringReader(TestsHelper.NORMAL_JSON + "\n" + TestsHelper.NORMAL_JSON + "\n"),
+                ImportFormat.NDJSON, 1, last::set);
+
+        assertEquals("Неправильное количество созданных игроков при импорте", 2, last.get().getCreated());
+        assertEquals("Неправильное количество игроков после импорта",
+                42, (int) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM player", Integer.class));
+        assertEquals("Каждая порция импорта должна увеличивать player_version, чтобы приложение увидело новых игроков",
+                version + 2, (long) jdbcTemplate.queryForObject("SELECT version FROM player_version WHERE id = 1", Long.class));
+    }
+}
@@ -1,4 +1,6 @@
 DROP TABLE IF EXISTS player;
+DROP TABLE IF EXISTS id_generator;
+DROP TABLE IF EXISTS player_version;
 
 CREATE TABLE player
 (
@@ -15,6 +17,13 @@ CREATE TABLE player
     PRIMARY KEY (id)
 );
 
+CREATE INDEX idx_player_race_profession_banned ON player (race, profession, banned);
+CREATE INDEX idx_player_profession_banned ON player (profession, banned);
+CREATE INDEX idx_player_experience ON player (experience);
+CREATE INDEX idx_player_level ON player (level);
+CREATE INDEX idx_player_birthday ON player (birthday);
+CREATE INDEX idx_player_name ON player (name);
+
 INSERT INTO player(name, title, race, profession, birthday, banned, experience, level, untilNextLevel)
 VALUES ('Ниус', 'Приходящий Без Шума', 'HOBBIT', 'ROGUE', '2010-10-12', false, 58347, 33, 1153)
      , ('Никрашш', 'НайтВульф', 'ORC', 'WARLOCK', '2010-02-14', false, 174403, 58, 2597)
@@ -55,4 +64,25 @@ VALUES ('Ниус', 'Приходящий Без Шума', 'HOBBIT', 'ROGUE', '
      , ('Яра', 'Прельстивая', 'HUMAN', 'CLERIC', '2004-06-12', false, 138306, 52, 4794)
      , ('Иллинас', 'Иероглиф', 'HOBBIT', 'WARRIOR', '2007-06-03', false, 115546, 47, 2054)
      , ('Ардонг', 'Вспышк A', 'HUMAN', 'WARLOCK', '2009-09-16', false, 24984, 21, 316)
-     , ('Аттирис', 'и.о.Карвандоса', 'ELF', 'SORCERER', '2010-04-15', true, 60520, 34, 2480);
\ No newline at end of file
+     , ('Аттирис', 'и.о.Карвандоса', 'ELF', 'SORCERER', '2010-04-15', true, 60520, 34, 2480);
+
+CREATE TABLE id_generator
+(
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val      BIGINT(20)   NULL,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO id_generator(sequence_name, next_val)
+SELECT 'player', MAX(id) + 1
+FROM player;
+
+CREATE TABLE player_version
+(
+    id      INT        NOT NULL,
+    version BIGINT(20) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO player_version(id, version)
+VALUES (1, 0);